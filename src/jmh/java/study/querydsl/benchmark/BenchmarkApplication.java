@@ -0,0 +1,65 @@
+package study.querydsl.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.QuerydslApplication;
+
+// 벤치마크용 애플리케이션 컨텍스트 : 임베디드 H2 에 memberCount 만큼의 회원을 적재한다
+// 팀은 team1 ~ team10, 나이는 0 ~ 99 로 고르게 분포
+final class BenchmarkApplication {
+    static final int TEAM_COUNT = 10;
+    private static final int LOAD_CHUNK = 1_000_000;
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(int memberCount, String... extraArgs) {
+        return start(WebApplicationType.NONE, memberCount, extraArgs);
+    }
+
+    // 임베디드 톰캣까지 띄운다 (포트는 local.server.port)
+    static ConfigurableApplicationContext startWeb(int memberCount, String... extraArgs) {
+        return start(WebApplicationType.SERVLET, memberCount, concat(extraArgs, "--server.port=0"));
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, int memberCount,
+                                                        String... extraArgs) {
+        String[] args = {
+                "--spring.profiles.active=jmh",
+                "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                "--decorator.datasource.p6spy.enable-logging=false",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--logging.level.root=warn",
+                // 같은 조건을 반복 조회하므로 결과 캐시를 끄지 않으면 DB 를 거치지 않는다
+                "--member.result-cache.enabled=false"
+        };
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(webApplicationType)
+                .run(concat(args, extraArgs));
+        load(context.getBean(JdbcTemplate.class), memberCount);
+        return context;
+    }
+
+    private static String[] concat(String[] first, String... second) {
+        String[] all = new String[first.length + second.length];
+        System.arraycopy(first, 0, all, 0, first.length);
+        System.arraycopy(second, 0, all, first.length, second.length);
+        return all;
+    }
+
+    // em.persist 로는 1e7 건 적재에 너무 오래 걸리므로 H2 의 SYSTEM_RANGE 로 직접 insert
+    private static void load(JdbcTemplate jdbcTemplate, int memberCount) {
+        jdbcTemplate.update("insert into team (team_id, name) select x, 'team' || x from system_range(1, ?)", TEAM_COUNT);
+        for (long from = 1; from <= memberCount; from += LOAD_CHUNK) {
+            long to = Math.min(memberCount, from + LOAD_CHUNK - 1);
+            jdbcTemplate.update("insert into member (member_id, username, age, team_id) " +
+                    "select x, 'member' || x, mod(x, 100), mod(x, ?) + 1 from system_range(?, ?)",
+                    TEAM_COUNT, from, to);
+        }
+    }
+}
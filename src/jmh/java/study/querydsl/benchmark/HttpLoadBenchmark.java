@@ -0,0 +1,94 @@
+package study.querydsl.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+// /v1, /v2, /v3/members 에 대한 HTTP 부하 테스트 (기본 설정 vs tuned 프로필)
+// 풀 포화 지점 찾기 : 스레드 수와 풀 크기를 바꿔 가며 실행
+//   ./gradlew jmh -PjmhArgs="HttpLoadBenchmark -t 64 -p datasource=tuned -p poolSize=4,8,16,32"
+// 종료할 때 풀별 커넥션 획득 대기 시간(hikaricp.connections.acquire)을 출력한다. 이 값이 커지기 시작하는 곳이 포화 지점
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(32)
+@State(Scope.Benchmark)
+public class HttpLoadBenchmark {
+
+    @Param({"100000"})
+    private int memberCount;
+
+    @Param({"default", "tuned"})
+    private String datasource;
+
+    // tuned 일 때만 적용, 0 이면 코어 수 * 2 + 1
+    @Param({"0"})
+    private int poolSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest v1;
+    private HttpRequest v2;
+    private HttpRequest v3;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = "tuned".equals(datasource)
+                ? BenchmarkApplication.startWeb(memberCount, "--spring.profiles.include=tuned",
+                        "--member.datasource.tuning.pool-size=" + poolSize)
+                : BenchmarkApplication.startWeb(memberCount);
+
+        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        // 전체의 1% 정도가 걸리는 조건
+        String condition = "teamName=team1&ageGoe=20&ageLoe=21";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        v1 = HttpRequest.newBuilder(URI.create(base + "/v1/members?" + condition)).build();
+        v2 = HttpRequest.newBuilder(URI.create(base + "/v2/members?" + condition + "&page=1&size=20")).build();
+        v3 = HttpRequest.newBuilder(URI.create(base + "/v3/members?" + condition + "&page=1&size=20")).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        MeterRegistry registry = context.getBean(MeterRegistry.class);
+        for (Timer acquire : registry.find("hikaricp.connections.acquire").timers()) {
+            System.out.printf("%n[%s] pool %s : connection acquire mean %.3f ms, max %.3f ms, timeouts %.0f%n",
+                    datasource, acquire.getId().getTag("pool"),
+                    acquire.mean(TimeUnit.MILLISECONDS), acquire.max(TimeUnit.MILLISECONDS),
+                    registry.find("hikaricp.connections.timeout").tag("pool", acquire.getId().getTag("pool"))
+                            .counters().stream().mapToDouble(c -> c.count()).sum());
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] v1() throws IOException, InterruptedException {
+        return send(v1);
+    }
+
+    @Benchmark
+    public byte[] v2() throws IOException, InterruptedException {
+        return send(v2);
+    }
+
+    @Benchmark
+    public byte[] v3() throws IOException, InterruptedException {
+        return send(v3);
+    }
+
+    private byte[] send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200)
+            throw new IllegalStateException(request.uri() + " -> " + response.statusCode());
+        return response.body();
+    }
+}
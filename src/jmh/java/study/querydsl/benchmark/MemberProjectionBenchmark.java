@@ -0,0 +1,117 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.MemberJdbcSearch;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+// 같은 조회를 projection 방식만 바꿔서 비교 (bean / fields / constructor / @QueryProjection / JDBC RowMapper)
+// 행당 할당량 : -prof gc 의 gc.alloc.rate.norm(B/op) 을 setUp 에서 출력하는 결과 행 수로 나눈다
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class MemberProjectionBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int memberCount;
+
+    private ConfigurableApplicationContext context;
+    private JPAQueryFactory queryFactory;
+    private MemberJdbcSearch jdbcSearch;
+    private MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(memberCount);
+        queryFactory = context.getBean(JPAQueryFactory.class);
+        jdbcSearch = context.getBean(MemberJdbcSearch.class);
+
+        // filter() 와 같은 조건
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team1");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(21);
+        System.out.printf("memberCount=%d rows/op=%d%n", memberCount, queryProjection().size());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> bean() {
+        return queryFactory.select(Projections.bean(MemberTeamDto.class,
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member).leftJoin(member.team, team)
+                .where(filter())
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> fields() {
+        return queryFactory.select(Projections.fields(MemberTeamDto.class,
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member).leftJoin(member.team, team)
+                .where(filter())
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> constructor() {
+        return queryFactory.select(Projections.constructor(MemberTeamDto.class,
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member).leftJoin(member.team, team)
+                .where(filter())
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> queryProjection() {
+        return queryFactory.select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member).leftJoin(member.team, team)
+                .where(filter())
+                .fetch();
+    }
+
+    // ResultSet 에서 바로 생성자로 (Hibernate 결과 처리, Object[] 행 없음)
+    @Benchmark
+    public List<MemberTeamDto> jdbcRowMapper() {
+        return jdbcSearch.search(condition);
+    }
+
+    private BooleanExpression filter() {
+        return team.name.eq("team1").and(member.age.between(20, 21));
+    }
+}
@@ -0,0 +1,62 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.entity.Member;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.repository.ReadOnlyQueries.readOnly;
+
+// 회원 10만 건을 한 트랜잭션에서 읽을 때 관리 엔티티 / 읽기 전용 엔티티 / DTO 의 비용 비교
+// -prof gc 의 gc.alloc.rate.norm 이 10만 건당 할당 바이트 (관리 엔티티는 스냅샷 + 커밋 시 dirty checking 포함)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ReadOnlyQueryBenchmark {
+
+    @Param({"100000"})
+    private int memberCount;
+
+    private ConfigurableApplicationContext context;
+    private JPAQueryFactory queryFactory;
+    private TransactionTemplate tx;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(memberCount);
+        queryFactory = context.getBean(JPAQueryFactory.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> managedEntities() {
+        return tx.execute(status -> queryFactory.selectFrom(member).fetch());
+    }
+
+    @Benchmark
+    public List<Member> readOnlyEntities() {
+        return tx.execute(status -> readOnly(queryFactory.selectFrom(member)).fetch());
+    }
+
+    @Benchmark
+    public List<MemberDto> dtoProjection() {
+        return tx.execute(status -> queryFactory.select(new QMemberDto(member.username, member.age))
+                .from(member).fetch());
+    }
+}
@@ -1,5 +1,7 @@
 package study.querydsl;
 
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -20,4 +22,11 @@ public class QuerydslApplication {
 	JPAQueryFactory jpaQueryFactory(EntityManager em) {
 		return new JPAQueryFactory(em);
 	}
+
+	// getter 리플렉션 호출 대신 LambdaMetafactory 로 만든 접근자로 직렬화 (스프링 부트가 ObjectMapper 에 등록)
+	// 직렬화 설정(naming, inclusion 등)은 그대로 적용된다
+	@Bean
+	Module blackbirdModule() {
+		return new BlackbirdModule();
+	}
 }
@@ -0,0 +1,71 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// member.datasource.routing.enabled=true 이면 spring.datasource 대신 primary/replica 두 풀을 만들고
+// 읽기 전용 트랜잭션은 replica 로 보낸다 (설정 예는 application.yml)
+// 풀마다 Hikari 메트릭(hikaricp.connections.* , pool 태그)이 actuator 에 따로 잡힌다
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "member.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("member.datasource.primary")
+    public HikariDataSource primaryDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("member.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                               @Value("${member.datasource.replica-lag.query:select 0}") String lagQuery,
+                                               @Value("${member.datasource.replica-lag.max:5s}") Duration maxLag,
+                                               @Value("${member.datasource.replica-lag.check-interval:1s}") Duration checkInterval,
+                                               MeterRegistry registry) {
+        return new ReplicaLagMonitor(replica, lagQuery, maxLag, checkInterval, registry);
+    }
+
+    // OSIV 로 요청 내내 같은 EntityManager 를 쓰면 기본값(DELAYED_ACQUISITION_AND_HOLD)은 요청의 첫 커넥션을 끝까지 잡고 있어서
+    // 읽기 전용 트랜잭션 뒤의 쓰기 트랜잭션도 replica 커넥션을 쓴다
+    // 트랜잭션이 끝날 때마다 커넥션을 돌려주고 다음 트랜잭션에서 다시 라우팅한다
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor lagMonitor, MeterRegistry registry) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, lagMonitor, registry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,91 @@
+package study.querydsl.config;
+
+import com.github.gavlyukovskiy.boot.jdbc.decorator.DecoratedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+
+// member.datasource.tuning.enabled=true (tuned 프로필) 이면 모든 Hikari 풀(spring.datasource, primary/replica)에 적용
+// p6spy 데코레이터가 먼저 감싸면 HikariDataSource 가 아니게 되므로 가장 먼저 실행하고(PriorityOrdered) 감싼 경우에도 풀을 꺼내서 적용한다
+//  - 풀 크기 : pool-size 가 0 이면 코어 수 * 2 + 1, 최소 유휴 커넥션도 같은 값으로 고정 크기 풀
+//  - 커넥션 누수 감지 : leak-detection 보다 오래 반납되지 않은 커넥션은 획득한 위치의 스택과 함께 경고
+//  - 문장 캐시 : Hikari 에는 문장 캐시가 없으므로 드라이버별 캐시 설정을 넣는다 (이미 설정된 값은 건드리지 않음)
+//      H2 : QUERY_CACHE_SIZE (세션별 파싱된 문장 캐시, 기본 8) / MySQL : cachePrepStmts 등 / PostgreSQL : preparedStatementCacheQueries
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "member.datasource.tuning.enabled", havingValue = "true")
+public class HikariTuningPostProcessor implements BeanPostProcessor, PriorityOrdered {
+    private final int poolSize;
+    private final Duration leakDetection;
+    private final int statementCacheSize;
+
+    public HikariTuningPostProcessor(@Value("${member.datasource.tuning.pool-size:0}") int poolSize,
+                                     @Value("${member.datasource.tuning.leak-detection:10s}") Duration leakDetection,
+                                     @Value("${member.datasource.tuning.statement-cache-size:256}") int statementCacheSize) {
+        this.poolSize = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors() * 2 + 1;
+        this.leakDetection = leakDetection;
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    // 설정 바인딩이 끝난 뒤, 풀이 시작되기(첫 getConnection) 전에 적용
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Object target = bean instanceof DecoratedDataSource ? ((DecoratedDataSource) bean).getRealDataSource() : bean;
+        if (!(target instanceof HikariDataSource))
+            return bean;
+
+        HikariDataSource dataSource = (HikariDataSource) target;
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(poolSize);
+        dataSource.setLeakDetectionThreshold(leakDetection.toMillis());
+        applyStatementCache(dataSource);
+
+        log.info("hikari pool '{}' tuned : size {}, leak detection {} ms, url {}", beanName, poolSize,
+                leakDetection.toMillis(), dataSource.getJdbcUrl());
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private void applyStatementCache(HikariDataSource dataSource) {
+        String url = dataSource.getJdbcUrl();
+        if (url == null)
+            return;
+
+        if (url.startsWith("jdbc:h2:")) {
+            // 이미 열려 있는 DB 에 tcp 로 붙는 경우에는 DB 를 처음 연 쪽의 설정이 적용된다
+            if (!url.toUpperCase().contains("QUERY_CACHE_SIZE"))
+                dataSource.setJdbcUrl(url + ";QUERY_CACHE_SIZE=" + statementCacheSize);
+        } else if (url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:")) {
+            putIfAbsent(dataSource, Map.of(
+                    "cachePrepStmts", "true",
+                    "useServerPrepStmts", "true",
+                    "prepStmtCacheSize", String.valueOf(statementCacheSize),
+                    "prepStmtCacheSqlLimit", "2048"));
+        } else if (url.startsWith("jdbc:postgresql:")) {
+            putIfAbsent(dataSource, Map.of(
+                    "prepareThreshold", "1",
+                    "preparedStatementCacheQueries", String.valueOf(statementCacheSize)));
+        }
+    }
+
+    private static void putIfAbsent(HikariDataSource dataSource, Map<String, String> properties) {
+        Properties current = dataSource.getDataSourceProperties();
+        properties.forEach((key, value) -> {
+            if (!current.containsKey(key))
+                dataSource.addDataSourceProperty(key, value);
+        });
+    }
+}
@@ -0,0 +1,181 @@
+package study.querydsl.config;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.pagination.LimitHandler;
+import org.hibernate.engine.query.spi.HQLQueryPlan;
+import org.hibernate.engine.spi.RowSelection;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberCursor;
+import study.querydsl.repository.MemberPageQuery;
+import study.querydsl.repository.MemberSearchPlanCache;
+import study.querydsl.repository.MemberSearchPolicy;
+import study.querydsl.repository.MemberSearchQueries;
+import study.querydsl.repository.MemberSortKey;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static study.querydsl.entity.QTeam.team;
+
+// 시작 시 검색 조건 조합(shape)마다 실제 SQL 의 실행 계획(EXPLAIN)을 확인하고
+// 풀 스캔이면 경고를 남긴다 (querydsl.index-advisor.enabled=true 일 때만)
+//  - search() 의 JPQL (MemberSearchPlanCache, hit/miss 는 세지 않는다)
+//  - searchSimple/searchComplex 의 카운트 쿼리와 페이지 쿼리 (정렬 키마다 offset, 키셋 조건) 를 방언의 limit/offset 까지 붙인 그대로
+// 조건이 하나도 없는 shape 는 원래 전체 조회이므로 건너뛴다
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "querydsl.index-advisor.enabled", havingValue = "true")
+public class IndexAdvisor implements ApplicationRunner {
+    // H2 : "/* PUBLIC.MEMBER.tableScan */", PostgreSQL : "Seq Scan", MySQL : type 컬럼이 ALL
+    private static final Pattern FULL_SCAN = Pattern.compile("tableScan|Seq Scan|\\|ALL\\|", Pattern.CASE_INSENSITIVE);
+    private static final int SAMPLE_PAGE_SIZE = 20;
+
+    private final EntityManagerFactory emf;
+    private final JdbcTemplate jdbcTemplate;
+    private final JPAQueryFactory queryFactory;
+    private final PlatformTransactionManager transactionManager;
+    private final MemberSearchPlanCache planCache;
+    private final MemberSearchPolicy searchPolicy;
+    private final MemberSearchQueries queries;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        SessionFactoryImplementor sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            // 팀 id 변환이 켜져 있으면 없는 팀 이름은 조건이 사라지므로 실제 팀 이름으로
+            String teamName = queryFactory.select(team.name).from(team).fetchFirst();
+            for (int shape = 1; shape < MemberSearchPlanCache.SHAPES; shape++) {
+                String name = MemberSearchPlanCache.describe(shape);
+                inspectPlan(sessionFactory, name, planCache.peek(shape));
+
+                MemberSearchCondition condition = sampleCondition(shape, teamName == null ? "-" : teamName);
+                inspect(sessionFactory, name + ", count", queries.countQuery(condition));
+                for (MemberSortKey sortKey : MemberSortKey.values()) {
+                    // 두 번째 페이지 : keyset-offset 보다 얕으므로 정책 카운터도 건드리지 않는다
+                    MemberPageQuery page = searchPolicy.resolve(condition,
+                            PageRequest.of(1, SAMPLE_PAGE_SIZE, Sort.by(sortKey.getProperty())));
+                    inspect(sessionFactory, name + ", offset by " + sortKey.getProperty(), queries.pageContent(condition, page));
+                    MemberCursor boundary = new MemberCursor(sortKey, 0L, sampleValue(sortKey));
+                    inspect(sessionFactory, name + ", seek by " + sortKey.getProperty(),
+                            queries.pageContent(condition, page.seekFrom(boundary, SAMPLE_PAGE_SIZE)));
+                }
+            }
+        });
+    }
+
+    private void inspectPlan(SessionFactoryImplementor sessionFactory, String name, MemberSearchPlanCache.Plan plan) {
+        List<String> parameters = plan.getParameters();
+        HQLQueryPlan hqlPlan = sessionFactory.getQueryPlanCache()
+                .getHQLQueryPlan(plan.getJpql(), false, Collections.emptyMap());
+        for (String sql : hqlPlan.getSqlStrings()) {
+            explain(name, sql, ps -> {
+                // 실행 계획만 보므로 타입만 맞는 임의의 값을 넣는다
+                for (int i = 0; i < parameters.size(); i++) {
+                    if (parameters.get(i).startsWith("age"))
+                        ps.setInt(i + 1, 0);
+                    else
+                        ps.setString(i + 1, "");
+                }
+            });
+        }
+    }
+
+    // 실행할 쿼리를 그대로 만들어서 Hibernate 가 만드는 SQL + 방언의 limit/offset 을 붙이고 같은 순서로 바인딩한다
+    private void inspect(SessionFactoryImplementor sessionFactory, String name, JPAQuery<?> query) {
+        Query jpaQuery = query.createQuery();
+        String hql = jpaQuery.unwrap(org.hibernate.query.Query.class).getQueryString();
+        HQLQueryPlan hqlPlan = sessionFactory.getQueryPlanCache().getHQLQueryPlan(hql, false, Collections.emptyMap());
+
+        RowSelection selection = new RowSelection();
+        if (jpaQuery.getFirstResult() > 0)
+            selection.setFirstRow(jpaQuery.getFirstResult());
+        if (jpaQuery.getMaxResults() != Integer.MAX_VALUE)
+            selection.setMaxRows(jpaQuery.getMaxResults());
+        LimitHandler limitHandler = sessionFactory.getJdbcServices().getDialect().getLimitHandler();
+        List<Object> values = parameterValues(jpaQuery);
+
+        for (String sql : hqlPlan.getSqlStrings()) {
+            explain(name, limitHandler.processSql(sql, selection), ps -> {
+                int index = 1 + limitHandler.bindLimitParametersAtStartOfQuery(selection, ps, 1);
+                for (Object value : values)
+                    ps.setObject(index++, value);
+                limitHandler.bindLimitParametersAtEndOfQuery(selection, ps, index);
+            });
+        }
+    }
+
+    // ?1, ?2 ... 순서 (Querydsl 은 조건이 나오는 순서대로 번호를 붙인다)
+    // in 조건의 컬렉션은 확장 전 SQL 에 자리가 하나뿐이므로 첫 값만
+    private static List<Object> parameterValues(Query jpaQuery) {
+        List<Object> values = new ArrayList<>();
+        for (int position = 1; position <= jpaQuery.getParameters().size(); position++) {
+            Object value = jpaQuery.getParameterValue(position);
+            if (value instanceof Collection)
+                value = ((Collection<?>) value).isEmpty() ? null : ((Collection<?>) value).iterator().next();
+            values.add(value);
+        }
+        return values;
+    }
+
+    private void explain(String name, String sql, PreparedStatementSetter parameters) {
+        try {
+            String explain = jdbcTemplate.query("explain " + sql, parameters, rs -> {
+                StringBuilder plan = new StringBuilder("|");
+                ResultSetMetaData meta = rs.getMetaData();
+                while (rs.next()) {
+                    for (int column = 1; column <= meta.getColumnCount(); column++)
+                        plan.append(rs.getString(column)).append('|');
+                }
+                return plan.toString();
+            });
+
+            if (explain != null && FULL_SCAN.matcher(explain).find())
+                log.warn("[index-advisor] full scan for member search ({}) : {}", name, explain);
+            else
+                log.debug("[index-advisor] member search ({}) : {}", name, explain);
+        } catch (RuntimeException e) {
+            log.info("[index-advisor] could not explain member search ({}) : {}", name, e.getMessage());
+        }
+    }
+
+    // 실행 계획만 보므로 shape 에 포함된 조건에 타입만 맞는 값을 넣는다
+    private static MemberSearchCondition sampleCondition(int shape, String teamName) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if ((shape & MemberSearchPlanCache.USERNAME) != 0)
+            condition.setUsername("-");
+        if ((shape & MemberSearchPlanCache.TEAM_NAME) != 0)
+            condition.setTeamName(teamName);
+        if ((shape & MemberSearchPlanCache.AGE_GOE) != 0)
+            condition.setAgeGoe(0);
+        if ((shape & MemberSearchPlanCache.AGE_LOE) != 0)
+            condition.setAgeLoe(0);
+        return condition;
+    }
+
+    private static String sampleValue(MemberSortKey sortKey) {
+        return sortKey == MemberSortKey.USERNAME ? "" : "0";
+    }
+}
@@ -0,0 +1,193 @@
+package study.querydsl.config;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberDataChangedEvent;
+import study.querydsl.repository.MemberDelta;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+// Member/Team 의 insert/update/delete 를 감지해서 트랜잭션이 커밋된 뒤 MemberDataChangedEvent 를 한 번 발행한다
+// (MemberRepository.save 등 영속성 컨텍스트를 거치는 모든 쓰기, 회원은 팀/나이의 변경 전후도 함께)
+// 벌크 DML 처럼 Hibernate 이벤트가 없는 변경은 changed(...) 를 직접 호출한다
+@Component
+@RequiredArgsConstructor
+public class MemberChangeTracker implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+    private static final int MAX_DELTAS = 10_000;
+
+    private final EntityManagerFactory emf;
+    private final ApplicationEventPublisher publisher;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            memberChanged(MemberDelta.inserted((Long) event.getId(), username(event.getPersister(), event.getState()),
+                    teamId(event.getPersister(), event.getState()), age(event.getPersister(), event.getState())));
+            return;
+        }
+        entityChanged(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member) {
+            EntityPersister persister = event.getPersister();
+            // merge 등으로 변경 전 상태가 없으면 행 단위 내역 없이 알린다
+            if (event.getOldState() == null) {
+                record(Set.of(Member.class), false, null, false);
+                return;
+            }
+            Long beforeTeamId = teamId(persister, event.getOldState());
+            int beforeAge = age(persister, event.getOldState());
+            Long afterTeamId = teamId(persister, event.getState());
+            int afterAge = age(persister, event.getState());
+            String afterUsername = username(persister, event.getState());
+            boolean changed = !Objects.equals(beforeTeamId, afterTeamId) || beforeAge != afterAge
+                    || !Objects.equals(username(persister, event.getOldState()), afterUsername);
+            memberChanged(changed
+                    ? MemberDelta.updated((Long) event.getId(), beforeTeamId, beforeAge, afterUsername, afterTeamId, afterAge)
+                    : null);
+            return;
+        }
+        entityChanged(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            memberChanged(MemberDelta.deleted((Long) event.getId(), teamId(event.getPersister(), event.getDeletedState()),
+                    age(event.getPersister(), event.getDeletedState())));
+            return;
+        }
+        entityChanged(event.getEntity());
+    }
+
+    // Hibernate 5.4 는 오타 이름(Handing)이 추상 메서드이고 Handling 은 default 메서드
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    public void changed(Set<Class<?>> entityTypes, boolean bulk) {
+        record(entityTypes, bulk, null, !bulk);
+    }
+
+    private void memberChanged(MemberDelta delta) {
+        record(Set.of(Member.class), false, delta, true);
+    }
+
+    private void entityChanged(Object entity) {
+        if (entity instanceof Team)
+            changed(Set.of(Team.class), false);
+    }
+
+    private void record(Set<Class<?>> entityTypes, boolean bulk, MemberDelta delta, boolean deltaKnown) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publisher.publishEvent(new MemberDataChangedEvent(entityTypes, bulk,
+                    delta == null ? List.of() : List.of(delta), deltaKnown));
+            return;
+        }
+        pendingChanges().add(entityTypes, bulk, delta, deltaKnown);
+    }
+
+    private static Long teamId(EntityPersister persister, Object[] state) {
+        Object team = state[persister.getEntityMetamodel().getPropertyIndex("team")];
+        if (team instanceof HibernateProxy)
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        return team == null ? null : ((Team) team).getId();
+    }
+
+    private static String username(EntityPersister persister, Object[] state) {
+        return (String) state[persister.getEntityMetamodel().getPropertyIndex("username")];
+    }
+
+    private static int age(EntityPersister persister, Object[] state) {
+        return (Integer) state[persister.getEntityMetamodel().getPropertyIndex("age")];
+    }
+
+    // 트랜잭션마다 변경 내용을 모아 두었다가 커밋 후에 한 번만 발행 (행마다 동기화를 등록하지 않도록)
+    // REQUIRES_NEW 로 바깥 트랜잭션이 보류되면 suspend/resume 에서 풀었다가 다시 묶어서, 안쪽 트랜잭션은 자기 것을 따로 만든다
+    private PendingChanges pendingChanges() {
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private class PendingChanges implements TransactionSynchronization {
+        private final Set<Class<?>> entityTypes = new HashSet<>();
+        private final List<MemberDelta> memberDeltas = new ArrayList<>();
+        private boolean bulk;
+        private boolean deltasComplete = true;
+
+        void add(Set<Class<?>> types, boolean bulk, MemberDelta delta, boolean deltaKnown) {
+            this.entityTypes.addAll(types);
+            this.bulk |= bulk;
+            this.deltasComplete &= deltaKnown;
+            // 대량 적재처럼 한 트랜잭션에서 많이 바뀌면 행 단위 내역은 버린다 (받는 쪽에서 전체 재계산)
+            if (!deltasComplete || memberDeltas.size() >= MAX_DELTAS) {
+                this.deltasComplete = false;
+                this.memberDeltas.clear();
+            } else if (delta != null) {
+                this.memberDeltas.add(delta);
+            }
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(MemberChangeTracker.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(MemberChangeTracker.this, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            publisher.publishEvent(new MemberDataChangedEvent(entityTypes, bulk, memberDeltas, deltasComplete));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(MemberChangeTracker.this);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package study.querydsl.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+// 지연 로딩 프록시/컬렉션이 DB 에서 초기화될 때마다 (영속성 컨텍스트나 2차 캐시에서 채워지는 것은 빼고) 엔티티(컬렉션 role)별로 센다
+// 한 단위(HTTP 요청 또는 트랜잭션) 안에서 threshold 를 넘으면 N+1 로 보고
+//  - log  : 요청이 끝날 때 경고 로그 (운영 기본값)
+//  - fail : 넘는 순간 NPlusOneException (테스트 프로필)
+@Slf4j
+@Component
+public class NPlusOneDetector implements LoadEventListener, InitializeCollectionEventListener {
+    public enum Mode { OFF, LOG, FAIL }
+
+    private static final ThreadLocal<Map<String, Integer>> COUNTS = new ThreadLocal<>();
+
+    private final EntityManagerFactory emf;
+    private final Mode mode;
+    private final int threshold;
+
+    public NPlusOneDetector(EntityManagerFactory emf,
+                            @Value("${querydsl.n-plus-one.mode:LOG}") Mode mode,
+                            @Value("${querydsl.n-plus-one.threshold:10}") int threshold) {
+        this.emf = emf;
+        this.mode = mode;
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    void register() {
+        if (mode == Mode.OFF)
+            return;
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        // 기본 리스너가 영속성 컨텍스트에 엔티티를 채우기 전에 확인해야 하므로 앞에 등록
+        registry.prependListeners(EventType.LOAD, this);
+        registry.appendListeners(EventType.INIT_COLLECTION, this);
+    }
+
+    // 요청 단위 감지 시작 (NPlusOneInterceptor)
+    public void begin() {
+        COUNTS.set(new HashMap<>());
+    }
+
+    // 요청 단위 감지 종료 : threshold 를 넘은 항목을 로그로 남긴다
+    public void end() {
+        Map<String, Integer> counts = COUNTS.get();
+        COUNTS.remove();
+        if (counts == null || mode != Mode.LOG)
+            return;
+        counts.forEach((role, count) -> {
+            if (count > threshold)
+                log.warn("N+1 suspected : {} lazy loads of {}", count, role);
+        });
+    }
+
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+        // 프록시 초기화는 IMMEDIATE_LOAD, 이미 영속성 컨텍스트(배치 페치 등)에 있으면 쿼리가 나가지 않는다
+        if (loadType != LoadEventListener.IMMEDIATE_LOAD)
+            return;
+        EntityPersister persister = event.getSession().getFactory().getMetamodel()
+                .entityPersister(event.getEntityClassName());
+        EntityKey key = event.getSession().generateEntityKey(event.getEntityId(), persister);
+        if (event.getSession().getPersistenceContext().containsEntity(key) || inSecondLevelCache(event, persister))
+            return;
+        increment(persister.getEntityName());
+    }
+
+    // 2차 캐시(Team 등)에서 꺼내는 로딩도 쿼리가 나가지 않는다
+    private static boolean inSecondLevelCache(LoadEvent event, EntityPersister persister) {
+        return persister.canReadFromCache()
+                && event.getSession().getCacheMode().isGetEnabled()
+                && event.getSession().getFactory().getCache().containsEntity(persister.getEntityName(), event.getEntityId());
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+        increment(event.getCollection().getRole());
+    }
+
+    private void increment(String role) {
+        Map<String, Integer> counts = scope();
+        if (counts == null)
+            return;
+        int count = counts.merge(role, 1, Integer::sum);
+        if (mode == Mode.FAIL && count > threshold)
+            throw new NPlusOneException("N+1 detected : " + count + " lazy loads of " + role);
+    }
+
+    // 요청 밖(테스트, 배치)에서는 트랜잭션이 끝날 때까지를 한 단위로 본다
+    private Map<String, Integer> scope() {
+        Map<String, Integer> counts = COUNTS.get();
+        if (counts != null || !TransactionSynchronizationManager.isSynchronizationActive())
+            return counts;
+
+        Map<String, Integer> transactionCounts = new HashMap<>();
+        COUNTS.set(transactionCounts);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                end();
+            }
+        });
+        return transactionCounts;
+    }
+}
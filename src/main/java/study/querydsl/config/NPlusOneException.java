@@ -0,0 +1,8 @@
+package study.querydsl.config;
+
+public class NPlusOneException extends IllegalStateException {
+
+    public NPlusOneException(String message) {
+        super(message);
+    }
+}
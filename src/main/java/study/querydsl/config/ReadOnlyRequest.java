@@ -0,0 +1,13 @@
+package study.querydsl.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// 요청 동안 OSIV 영속성 컨텍스트를 읽기 전용으로 바꿀 핸들러 (ReadOnlyRequestInterceptor)
+// 쓰기가 없는 조회 핸들러에만 붙인다 : 읽기 전용으로 로딩된 엔티티의 변경은 오류 없이 버려진다
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnlyRequest {
+}
@@ -0,0 +1,38 @@
+package study.querydsl.config;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// @ReadOnlyRequest 가 붙은 핸들러는 OSIV 로 열린 영속성 컨텍스트를 읽기 전용으로 바꾼다
+// (GET 전체에 적용하면 GET 에서 쓰는 서비스의 변경이 조용히 버려지므로 조회 핸들러에만)
+// 요청 중에 로딩되는 엔티티는 스냅샷 없이 관리되고 flush 도 일어나지 않는다
+// OSIV 인터셉터 다음에 실행되어야 한다 (WebConfig 에서 순서 지정)
+@Component
+@RequiredArgsConstructor
+public class ReadOnlyRequestInterceptor implements HandlerInterceptor {
+    private final EntityManagerFactory emf;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod) || !((HandlerMethod) handler).hasMethodAnnotation(ReadOnlyRequest.class))
+            return true;
+
+        EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if (em != null) {
+            Session session = em.unwrap(Session.class);
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,49 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// @Transactional(readOnly = true) 트랜잭션의 커넥션은 replica, 나머지(쓰기, 트랜잭션 밖)는 primary 에서 가져온다
+// 읽기 전용 여부는 트랜잭션 시작 후에야 정해지므로 반드시 LazyConnectionDataSourceProxy 로 감싸서
+// 첫 쿼리를 실행할 때 커넥션을 고르도록 한다
+// replica 가 뒤처져 있으면(ReplicaLagMonitor) 읽기 전용 트랜잭션도 primary 로
+// 메트릭 : datasource.routing (target = primary/replica, reason = read-write/read-only/replica-lag)
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {PRIMARY, REPLICA}
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter readWrite;
+    private final Counter readOnly;
+    private final Counter replicaLag;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                      MeterRegistry registry) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.<Object, Object>of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+
+        this.readWrite = registry.counter("datasource.routing", "target", "primary", "reason", "read-write");
+        this.readOnly = registry.counter("datasource.routing", "target", "replica", "reason", "read-only");
+        this.replicaLag = registry.counter("datasource.routing", "target", "primary", "reason", "replica-lag");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readWrite.increment();
+            return Target.PRIMARY;
+        }
+        if (!lagMonitor.isReplicaUsable()) {
+            replicaLag.increment();
+            return Target.PRIMARY;
+        }
+        readOnly.increment();
+        return Target.REPLICA;
+    }
+}
@@ -0,0 +1,89 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// replica 의 복제 지연을 주기적으로 확인해서, max-lag 를 넘거나 확인에 실패하면 읽기를 primary 로 돌린다
+// lag-query 는 지연을 "초" 단위 숫자 하나로 반환하는 쿼리
+//  - MySQL : 복제 상태의 Seconds_Behind_Source 를 반환하는 쿼리 / PostgreSQL : select extract(epoch from now() - pg_last_xact_replay_timestamp())
+//  - 로컬 H2 두 개처럼 복제가 없는 환경은 select 0 (연결 확인만)
+// 메트릭 : datasource.replica.lag (ms, 확인 실패 시 -1), datasource.replica.usable (1/0)
+@Slf4j
+public class ReplicaLagMonitor implements DisposableBean {
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final AtomicLong lagMillis = new AtomicLong(-1);
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag, Duration checkInterval,
+                             MeterRegistry registry) {
+        this.replica = new JdbcTemplate(replica);
+        this.replica.setQueryTimeout((int) Math.max(1, checkInterval.getSeconds()));
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLag.toMillis();
+
+        Gauge.builder("datasource.replica.lag", lagMillis, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .register(registry);
+
+        check();
+        if (checkInterval.isZero()) {
+            this.scheduler = null;
+            return;
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("replica-lag-");
+        threadFactory.setDaemon(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.scheduler.scheduleWithFixedDelay(this::check, checkInterval.toMillis(), checkInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    public long getLagMillis() {
+        return lagMillis.get();
+    }
+
+    void check() {
+        boolean wasUsable = usable;
+        try {
+            Double seconds = replica.queryForObject(lagQuery, Double.class);
+            // null 은 지연을 알 수 없는 상태 (예 : 아직 복제를 받지 않은 PostgreSQL standby)
+            long lag = seconds == null ? -1 : Math.round(seconds * 1000);
+            lagMillis.set(lag);
+            usable = lag >= 0 && lag <= maxLagMillis;
+        } catch (RuntimeException e) {
+            lagMillis.set(-1);
+            usable = false;
+            log.debug("replica check failed", e);
+        }
+
+        if (wasUsable && !usable)
+            log.warn("replica unusable (lag {} ms, max {} ms), routing reads to primary", lagMillis.get(), maxLagMillis);
+        else if (!wasUsable && usable)
+            log.info("replica usable again (lag {} ms)", lagMillis.get());
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null)
+            scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,132 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberSearchPlanCache;
+import study.querydsl.repository.QueryMetricsContext;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// MemberRepositoryImpl / MemberJpaRepository 의 메서드별, 검색 조건 조합(shape)별, 결과(outcome=success|error)별 타이머와
+// 반환 행 수, JDBC 문장 수(StatementCountingListener), DTO 매핑 시간을 기록한다 (actuator /metrics/repository.* 로 확인)
+// 미터는 메서드 x shape 조합마다 한 번만 만들고 이후에는 배열에서 꺼내 쓴다
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+    private static final int NO_CONDITION = MemberSearchPlanCache.SHAPES;
+    private static final String[] SHAPE_TAGS = new String[MemberSearchPlanCache.SHAPES + 1];
+
+    static {
+        for (int shape = 0; shape < MemberSearchPlanCache.SHAPES; shape++)
+            SHAPE_TAGS[shape] = MemberSearchPlanCache.describe(shape);
+        SHAPE_TAGS[NO_CONDITION] = "none";
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Method, MethodMeters[]> meters = new ConcurrentHashMap<>();
+
+    @Around("execution(public * study.querydsl.repository.MemberRepositoryImpl.*(..))" +
+            " || execution(public * study.querydsl.repository.MemberJpaRepository.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        QueryMetricsContext.Scope scope = QueryMetricsContext.open();
+        if (scope == null)
+            return joinPoint.proceed();
+
+        // 예외로 끝난 호출도 outcome=error 로 기록한다
+        long start = System.nanoTime();
+        Object result = null;
+        boolean success = false;
+        try (scope) {
+            result = joinPoint.proceed();
+            success = true;
+            return result;
+        } finally {
+            metersFor(joinPoint, shapeOf(joinPoint.getArgs()), success)
+                    .record(System.nanoTime() - start, success ? rows(result) : -1, scope);
+        }
+    }
+
+    private MethodMeters metersFor(ProceedingJoinPoint joinPoint, int shape, boolean success) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodMeters[] byShape = meters.computeIfAbsent(method, m -> new MethodMeters[SHAPE_TAGS.length * 2]);
+        int index = shape * 2 + (success ? 0 : 1);
+        MethodMeters methodMeters = byShape[index];
+        if (methodMeters == null) {
+            methodMeters = new MethodMeters(registry, method.getDeclaringClass().getSimpleName(), method.getName(),
+                    SHAPE_TAGS[shape], success ? "success" : "error");
+            byShape[index] = methodMeters;
+        }
+        return methodMeters;
+    }
+
+    private static int shapeOf(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberSearchCondition)
+                return MemberSearchPlanCache.shapeOf((MemberSearchCondition) arg);
+        }
+        return NO_CONDITION;
+    }
+
+    // 행 수를 알 수 없는 반환 타입(Stream 등)은 -1
+    private static long rows(Object result) {
+        if (result instanceof Collection)
+            return ((Collection<?>) result).size();
+        if (result instanceof Page)
+            return ((Page<?>) result).getNumberOfElements();
+        if (result instanceof MemberCursorPage)
+            return ((MemberCursorPage) result).getContent().size();
+        if (result instanceof Optional)
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        return -1;
+    }
+
+    private static class MethodMeters {
+        private final Timer timer;
+        private final DistributionSummary rows;
+        private final DistributionSummary statements;
+        private final Timer mapping;
+
+        MethodMeters(MeterRegistry registry, String repository, String method, String shape, String outcome) {
+            this.timer = Timer.builder("repository.invocations")
+                    .tags("repository", repository, "method", method, "shape", shape, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.rows = DistributionSummary.builder("repository.rows")
+                    .tags("repository", repository, "method", method, "shape", shape, "outcome", outcome)
+                    .register(registry);
+            this.statements = DistributionSummary.builder("repository.statements")
+                    .description("JDBC statements per invocation (N+1 detection)")
+                    .tags("repository", repository, "method", method, "shape", shape, "outcome", outcome)
+                    .register(registry);
+            this.mapping = Timer.builder("repository.mapping")
+                    .description("time spent mapping rows into DTOs")
+                    .tags("repository", repository, "method", method, "shape", shape, "outcome", outcome)
+                    .register(registry);
+        }
+
+        void record(long elapsedNanos, long rowCount, QueryMetricsContext.Scope scope) {
+            timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            if (rowCount >= 0)
+                rows.record(rowCount);
+            statements.record(scope.getStatements());
+            if (scope.getMappingNanos() > 0)
+                mapping.record(scope.getMappingNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package study.querydsl.config;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import static java.util.stream.Collectors.toList;
+
+// p6spy 기본 로깅(모든 문장을 포맷해서 출력) 대신 쓰는 샘플링 SQL 로거 (decorator.datasource.p6spy.enable-logging=false)
+//  - sample-rate 건마다 1건, slow-threshold 를 넘은 문장, 예외가 난 문장만 로그로 남긴다
+//  - 문장 실행 스레드는 고정 크기 링 버퍼에 넣기만 하고, 실제 로그 출력은 별도 스레드에서 (버퍼가 차면 버리고 dropped 로 센다)
+//  - 느린 문장은 리터럴과 IN 목록을 지운 SQL(fingerprint)별로 횟수/총 시간/최대 시간을 모은다 (actuator /slowqueries)
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "querydsl.sql-log.enabled", havingValue = "true", matchIfMissing = true)
+public class SamplingSqlLogger extends JdbcEventListener implements DisposableBean {
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final int sampleRate;
+    private final long slowThresholdNanos;
+    private final int maxFingerprints;
+    private final AtomicLong statements = new AtomicLong();
+    private final BlockingQueue<Entry> buffer;
+    private final LongAdder dropped = new LongAdder();
+    private final Map<String, SlowQuery> slowQueries = new ConcurrentHashMap<>();
+    private final Thread writer;
+
+    public SamplingSqlLogger(@Value("${querydsl.sql-log.sample-rate:100}") int sampleRate,
+                             @Value("${querydsl.sql-log.slow-threshold:100ms}") Duration slowThreshold,
+                             @Value("${querydsl.sql-log.buffer-size:4096}") int bufferSize,
+                             @Value("${querydsl.sql-log.max-fingerprints:1000}") int maxFingerprints) {
+        this.sampleRate = Math.max(0, sampleRate);
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxFingerprints = maxFingerprints;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.writer = new Thread(this::drain, "sql-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation info, long timeElapsedNanos, SQLException e) {
+        boolean slow = timeElapsedNanos >= slowThresholdNanos;
+        if (slow)
+            slowQueryFor(fingerprint(info.getSql())).record(timeElapsedNanos);
+
+        boolean sampled = sampleRate > 0 && statements.incrementAndGet() % sampleRate == 0;
+        if (!sampled && !slow && e == null)
+            return;
+        // 값을 채운 SQL 은 로그로 남길 문장에만 만든다
+        Entry entry = new Entry(info.getConnectionInformation().getConnectionId(), info.getSqlWithValues(),
+                timeElapsedNanos, slow, e);
+        if (!buffer.offer(entry))
+            dropped.increment();
+    }
+
+    public List<SlowQuery> slowQueries() {
+        return slowQueries.values().stream()
+                .sorted(Comparator.comparingLong(SlowQuery::getTotalMillis).reversed())
+                .collect(toList());
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    public void resetSlowQueries() {
+        slowQueries.clear();
+    }
+
+    // 같은 모양의 쿼리를 한 항목으로 모으기 위한 정규화 : 리터럴 -> ?, IN (?, ?, ...) -> IN (?), 공백 정리
+    static String fingerprint(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("(?)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    private SlowQuery slowQueryFor(String fingerprint) {
+        SlowQuery slowQuery = slowQueries.get(fingerprint);
+        if (slowQuery != null)
+            return slowQuery;
+        // fingerprint 종류가 한도를 넘으면 새 항목은 하나로 묶는다
+        String key = slowQueries.size() < maxFingerprints ? fingerprint : "(other)";
+        return slowQueries.computeIfAbsent(key, SlowQuery::new);
+    }
+
+    private void drain() {
+        try {
+            while (!Thread.currentThread().isInterrupted())
+                write(buffer.take());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(Entry entry) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(entry.elapsedNanos);
+        if (entry.error != null)
+            log.warn("[sql] connection {} | {} ms | {} | {}", entry.connectionId, millis, entry.sql, entry.error.getMessage());
+        else if (entry.slow)
+            log.warn("[sql] connection {} | {} ms (slow) | {}", entry.connectionId, millis, entry.sql);
+        else
+            log.info("[sql] connection {} | {} ms | {}", entry.connectionId, millis, entry.sql);
+    }
+
+    @Override
+    public void destroy() {
+        writer.interrupt();
+    }
+
+    private static class Entry {
+        private final int connectionId;
+        private final String sql;
+        private final long elapsedNanos;
+        private final boolean slow;
+        private final SQLException error;
+
+        Entry(int connectionId, String sql, long elapsedNanos, boolean slow, SQLException error) {
+            this.connectionId = connectionId;
+            this.sql = sql;
+            this.elapsedNanos = elapsedNanos;
+            this.slow = slow;
+            this.error = error;
+        }
+    }
+
+    public static class SlowQuery {
+        private final String fingerprint;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        SlowQuery(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+        }
+
+        public long getMaxMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+        }
+
+        public double getMeanMillis() {
+            long count = getCount();
+            return count == 0 ? 0 : (double) getTotalMillis() / count;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package study.querydsl.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// GET /actuator/slowqueries : fingerprint 별 느린 쿼리 통계 (총 시간 순), DELETE 로 초기화
+@Component
+@ConditionalOnBean(SamplingSqlLogger.class)
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+    private final SamplingSqlLogger sqlLogger;
+
+    @ReadOperation
+    public Map<String, Object> slowQueries() {
+        List<SamplingSqlLogger.SlowQuery> slowQueries = sqlLogger.slowQueries();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("droppedLogEntries", sqlLogger.droppedCount());
+        result.put("queries", slowQueries);
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlLogger.resetSlowQueries();
+    }
+}
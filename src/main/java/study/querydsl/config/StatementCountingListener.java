@@ -0,0 +1,17 @@
+package study.querydsl.config;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import org.springframework.stereotype.Component;
+import study.querydsl.repository.QueryMetricsContext;
+
+// p6spy 가 감싼 DataSource 에서 문장이 실행될 때마다 호출된다 (N+1 확인용 문장 수 집계)
+// Hibernate 를 거치지 않는 JdbcTemplate 경로(member.search.engine=JDBC)도 같이 센다
+@Component
+public class StatementCountingListener extends JdbcEventListener {
+
+    @Override
+    public void onBeforeAnyExecute(StatementInformation statementInformation) {
+        QueryMetricsContext.statementExecuted();
+    }
+}
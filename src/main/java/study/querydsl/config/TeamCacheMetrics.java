@@ -0,0 +1,57 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import study.querydsl.repository.TeamIdResolver;
+
+import javax.persistence.EntityManagerFactory;
+
+// Team 2차 캐시 / 팀 이름 쿼리 캐시의 적중률 (actuator /metrics 로 노출)
+// 요청/적중 횟수 자체는 스프링 부트가 등록하는 hibernate.* 메트릭에 region 태그로 있다
+@Component
+@RequiredArgsConstructor
+public class TeamCacheMetrics implements MeterBinder {
+    private final EntityManagerFactory emf;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        Gauge.builder("team.cache.hit.ratio", statistics, s -> hitRatio(domainRegion(s, "team")))
+                .description("Team second-level cache hit ratio")
+                .register(registry);
+        Gauge.builder("team.query.cache.hit.ratio", statistics, s -> hitRatio(queryRegion(s, TeamIdResolver.REGION)))
+                .description("team name -> id query cache hit ratio")
+                .register(registry);
+    }
+
+    private static CacheRegionStatistics domainRegion(Statistics statistics, String region) {
+        try {
+            return statistics.getDomainDataRegionStatistics(region);
+        } catch (IllegalArgumentException e) {
+            // 2차 캐시를 끈 경우 region 이 없다
+            return null;
+        }
+    }
+
+    private static CacheRegionStatistics queryRegion(Statistics statistics, String region) {
+        try {
+            return statistics.getQueryRegionStatistics(region);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static double hitRatio(CacheRegionStatistics region) {
+        if (region == null)
+            return Double.NaN;
+        long requests = region.getHitCount() + region.getMissCount();
+        return requests == 0 ? 0 : (double) region.getHitCount() / requests;
+    }
+}
@@ -0,0 +1,51 @@
+package study.querydsl.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+    private final NPlusOneInterceptor nPlusOneInterceptor;
+    private final ReadOnlyRequestInterceptor readOnlyRequestInterceptor;
+    // Boot 가 spring.jackson.* 설정과 Module 빈(Blackbird)을 적용한 빌더 (prototype 이라 꺼낼 때마다 새 빌더)
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(nPlusOneInterceptor);
+        // OSIV 인터셉터(order 0)가 영속성 컨텍스트를 연 뒤에 실행
+        registry.addInterceptor(readOnlyRequestInterceptor).order(Ordered.LOWEST_PRECEDENCE);
+    }
+
+    // Spring 기본 Smile/CBOR 컨버터는 자기 ObjectMapper 를 만들어서 Blackbird 와 spring.jackson.* 설정이 빠지므로
+    // JSON 컨버터와 같은 빌더로 만든 것으로 바꾼다
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.replaceAll(converter -> {
+            if (converter instanceof MappingJackson2SmileHttpMessageConverter)
+                return new MappingJackson2SmileHttpMessageConverter(objectMapper(new SmileFactory()));
+            if (converter instanceof MappingJackson2CborHttpMessageConverter)
+                return new MappingJackson2CborHttpMessageConverter(objectMapper(new CBORFactory()));
+            return converter;
+        });
+    }
+
+    private ObjectMapper objectMapper(JsonFactory factory) {
+        return objectMapperBuilder.getObject().factory(factory).build();
+    }
+}
@@ -6,20 +6,27 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.service.MemberBulkLoader;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.stream.IntStream;
 
 @Profile("local")
 @Component
 @RequiredArgsConstructor
 public class InitMember {
     private final InitMemberService initMemberService;
+    private final MemberBulkLoader memberBulkLoader;
 
+    // 회원은 청크마다 따로 커밋하므로 팀을 먼저 커밋한 뒤에 적재한다
     @PostConstruct
     public void init() {
-        initMemberService.init();
+        List<Team> teams = initMemberService.initTeams();
+        memberBulkLoader.load(IntStream.range(0, 100)
+                .mapToObj(i -> Member.forBulkLoad("member" + i, i, teams.get(i % 2))));
     }
 
     @Component
@@ -28,16 +35,12 @@ public class InitMember {
         private EntityManager em;
 
         @Transactional
-        public void init() {
+        public List<Team> initTeams() {
             Team teamA = new Team("teamA");
             Team teamB = new Team("teamB");
             em.persist(teamA);
             em.persist(teamB);
-
-            for (int i = 0; i < 100; i++) {
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member" + i, i, selectedTeam));
-            }
+            return List.of(teamA, teamB);
         }
     }
 }
@@ -3,13 +3,29 @@ package study.querydsl.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.config.ReadOnlyRequest;
+import study.querydsl.dto.MemberCursorPage;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberStatsDto;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.InvalidSearchRequestException;
+import study.querydsl.repository.MemberCountMode;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSortKey;
+import study.querydsl.service.MemberExportFormat;
+import study.querydsl.service.MemberExportService;
+import study.querydsl.service.MemberStatsRollup;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 
 @RequiredArgsConstructor
@@ -17,20 +33,63 @@ import java.util.List;
 public class MemberController {
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberExportService memberExportService;
+    private final MemberStatsRollup memberStatsRollup;
 
 
     @GetMapping("/v1/members")
+    @ReadOnlyRequest
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
         return memberJpaRepository.search(condition);
     }
 
     @GetMapping("/v2/members")
+    @ReadOnlyRequest
     public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
         return memberRepository.searchSimple(condition, pageable);
     }
 
     @GetMapping("/v3/members")
-    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchComplex(condition, pageable);
+    @ReadOnlyRequest
+    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable,
+                                              @RequestParam(defaultValue = "EXACT") MemberCountMode count) {
+        return memberRepository.searchComplex(condition, pageable, count);
+    }
+
+    // 팀별 나이 집계 : 메모리에 유지하는 롤업에서 바로 (GROUP BY 스캔 없음)
+    @GetMapping("/members/stats")
+    public MemberStatsDto memberStats() {
+        return memberStatsRollup.stats();
+    }
+
+    // 키셋 페이징 : 깊은 페이지도 첫 페이지와 같은 비용
+    @GetMapping("/v4/members")
+    @ReadOnlyRequest
+    public MemberCursorPage searchMemberV4(MemberSearchCondition condition,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "id") String sort,
+                                           @RequestParam(defaultValue = "20") int size) {
+        if (size < 1)
+            throw new InvalidSearchRequestException("size는 1 이상이어야 합니다.");
+        return memberRepository.searchByCursor(condition, MemberSortKey.from(sort), cursor, size);
+    }
+
+    // 결과를 List 로 모으지 않고 NDJSON/CSV 로 바로 흘려보낸다
+    @GetMapping("/v1/members/export")
+    @ReadOnlyRequest
+    public void exportMembers(MemberSearchCondition condition,
+                              @RequestParam(defaultValue = "NDJSON") MemberExportFormat format,
+                              HttpServletResponse response) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=members." + format.getExtension());
+        memberExportService.export(condition, format, response.getOutputStream());
+    }
+
+    // 요청 값 오류만 400, 그 밖의 IllegalArgumentException 은 내부 오류로 둔다
+    @ExceptionHandler(InvalidSearchRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String badRequest(InvalidSearchRequestException e) {
+        return e.getMessage();
     }
 }
@@ -0,0 +1,23 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.service.MemberReactiveSearchService;
+
+// Flux 를 반환하면 스프링 MVC 가 비동기로 처리하므로 응답을 쓰는 동안 서블릿 스레드를 점유하지 않는다
+@RequiredArgsConstructor
+@RestController
+public class MemberReactiveController {
+    private final MemberReactiveSearchService memberReactiveSearchService;
+
+    @GetMapping(value = "/reactive/members",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<MemberTeamDto> searchMembers(MemberSearchCondition condition) {
+        return memberReactiveSearchService.search(condition);
+    }
+}
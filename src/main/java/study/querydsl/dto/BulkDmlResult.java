@@ -0,0 +1,26 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+// 벌크 DML 한 번이 건드린 대상 : 엔티티 타입, 테이블, 2차 캐시 region, 영속성 컨텍스트에서 분리한 엔티티 수
+@Getter
+@ToString
+public class BulkDmlResult {
+    private final Class<?> entityType;
+    private final long affectedRows;
+    private final int detachedEntities;
+    private final List<String> tables;
+    private final List<String> cacheRegions;
+
+    public BulkDmlResult(Class<?> entityType, long affectedRows, int detachedEntities,
+                         List<String> tables, List<String> cacheRegions) {
+        this.entityType = entityType;
+        this.affectedRows = affectedRows;
+        this.detachedEntities = detachedEntities;
+        this.tables = tables;
+        this.cacheRegions = cacheRegions;
+    }
+}
@@ -0,0 +1,27 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.concurrent.TimeUnit;
+
+@Getter
+@ToString
+public class BulkJobResult {
+    private final String jobName;
+    private final int chunks;
+    // 이번 실행에서 바뀐 행 수 (재시작 전에 처리된 행은 포함하지 않는다)
+    private final long rows;
+    private final long totalRows;
+    private final boolean completed;
+    private final long elapsedMillis;
+
+    public BulkJobResult(String jobName, int chunks, long rows, long totalRows, boolean completed, long elapsedNanos) {
+        this.jobName = jobName;
+        this.chunks = chunks;
+        this.rows = rows;
+        this.totalRows = totalRows;
+        this.completed = completed;
+        this.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+}
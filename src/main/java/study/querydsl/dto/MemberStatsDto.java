@@ -0,0 +1,21 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@ToString
+public class MemberStatsDto {
+    private final TeamStatsDto total;
+    private final List<TeamStatsDto> teams;
+    // 마지막 스냅샷 이후의 변경이 아직 반영되지 않았다 (백그라운드에서 다시 만드는 중)
+    private final boolean stale;
+
+    public MemberStatsDto(TeamStatsDto total, List<TeamStatsDto> teams, boolean stale) {
+        this.total = total;
+        this.teams = teams;
+        this.stale = stale;
+    }
+}
@@ -1,9 +1,13 @@
 package study.querydsl.dto;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.querydsl.core.annotations.QueryProjection;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@JsonPropertyOrder({"memberId", "username", "age", "teamId", "teamName"})
 public class MemberTeamDto {
     private Long memberId;
     private String username;
@@ -0,0 +1,20 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class TeamMembersDto {
+    private Long teamId;
+    private String teamName;
+    private long memberCount;
+    private List<MemberDto> topMembers = new ArrayList<>();
+
+    public TeamMembersDto(Long teamId, String teamName, long memberCount) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.memberCount = memberCount;
+    }
+}
@@ -0,0 +1,32 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+// 팀(또는 전체)의 나이 집계 : count, sum, avg, min, max, 10살 단위 히스토그램
+@Getter
+@ToString
+public class TeamStatsDto {
+    private final Long teamId;
+    private final String teamName;
+    private final long count;
+    private final long sum;
+    private final Double avg;
+    private final Integer min;
+    private final Integer max;
+    private final Map<String, Long> ageHistogram;
+
+    public TeamStatsDto(Long teamId, String teamName, long count, long sum, Integer min, Integer max,
+                        Map<String, Long> ageHistogram) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.count = count;
+        this.sum = sum;
+        this.avg = count == 0 ? null : (double) sum / count;
+        this.min = min;
+        this.max = max;
+        this.ageHistogram = ageHistogram;
+    }
+}
@@ -0,0 +1,44 @@
+package study.querydsl.entity;
+
+import lombok.*;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+// 청크 단위 벌크 작업의 진행 위치 (청크와 같은 트랜잭션에서 갱신되므로 커밋된 청크까지만 기록된다)
+@Getter
+@ToString
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Entity
+public class BulkJobCheckpoint {
+
+    @Id
+    private String jobName;
+    // 시작할 때 정한 처리 범위의 끝 id (이후에 추가된 행은 대상이 아니다)
+    private Long maxId;
+    // 마지막으로 커밋된 청크의 끝 id
+    private Long lastId;
+    private long processedRows;
+    private boolean completed;
+    private LocalDateTime updatedAt;
+
+    public BulkJobCheckpoint(String jobName, Long maxId) {
+        this.jobName = jobName;
+        this.maxId = maxId;
+        this.lastId = 0L;
+        this.completed = maxId <= lastId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void advance(Long lastId, long rows) {
+        this.lastId = lastId;
+        this.processedRows += rows;
+        this.completed = lastId >= maxId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public long remainingIds() {
+        return Math.max(0, maxId - lastId);
+    }
+}
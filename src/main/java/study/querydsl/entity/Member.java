@@ -8,9 +8,16 @@ import javax.persistence.*;
 @ToString(of={"id", "username", "age"})
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age"),
+        @Index(name = "idx_member_age", columnList = "age")
+})
 public class Member {
 
-    @Id @GeneratedValue
+    // pooled 옵티마이저 : 시퀀스 한 번에 50개씩 id 를 받아서 insert 를 JDBC batch 로 묶을 수 있다
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
     @Column(name="member_id")
     private Long id;
     private String username;
@@ -35,6 +42,14 @@ public class Member {
         this(username, age, null);
     }
 
+    // 대량 적재용 : 연관관계의 주인 쪽만 세팅하고 Team.members 컬렉션에는 추가하지 않는다
+    // (수백만 건을 적재하는 동안 팀의 컬렉션이 계속 커지는 것을 막기 위함)
+    public static Member forBulkLoad(String username, int age, Team team) {
+        Member member = new Member(username, age);
+        member.team = team;
+        return member;
+    }
+
     private void changeTeam(Team team) {
         this.team = team;
         team.getMembers().add(this);
@@ -0,0 +1,136 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.EntityPathBase;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.SimplePath;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.config.MemberChangeTracker;
+import study.querydsl.dto.BulkDmlResult;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.EntityType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.toList;
+
+// Querydsl 벌크 update/delete 래퍼
+// 벌크 연산은 영속성 컨텍스트를 거치지 않으므로 em.clear() 로 전부 비우는 대신
+// 조건에 걸리는 "이미 영속 상태인" 엔티티(와 그 엔티티를 담고 있는 초기화된 컬렉션의 주인)만 분리하고,
+// 커밋 후 MemberDataChangedEvent 로 결과/카운트 캐시를 무효화한다
+// 분리하면 아직 flush 되지 않은 변경이 사라지므로 DML 전에 먼저 flush 한다
+// (DML 뒤에 flush 하면 벌크로 바꾼 컬럼을 영속성 컨텍스트의 이전 값으로 덮어쓴다)
+// 2차 캐시 region 과 쿼리 캐시는 Hibernate 가 벌크 HQL 실행 시 해당 엔티티 region / 테이블 단위로 직접 무효화한다
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class BulkDmlRepository {
+    private static final int IN_CHUNK = 1000;
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final MemberChangeTracker changeTracker;
+
+    @Transactional
+    public <T> BulkDmlResult update(EntityPathBase<T> path, Predicate predicate, Consumer<JPAUpdateClause> assignments) {
+        em.flush();
+        // 값이 바뀌기 전에 조건에 걸리는 엔티티를 찾아 둔다 (set 절이 조건 컬럼을 바꿀 수 있으므로)
+        Set<Object> affected = affectedManagedEntities(path, predicate);
+        JPAUpdateClause update = queryFactory.update(path).where(predicate);
+        assignments.accept(update);
+        return afterDml(path, update.execute(), affected);
+    }
+
+    @Transactional
+    public <T> BulkDmlResult delete(EntityPathBase<T> path, Predicate predicate) {
+        em.flush();
+        Set<Object> affected = affectedManagedEntities(path, predicate);
+        return afterDml(path, queryFactory.delete(path).where(predicate).execute(), affected);
+    }
+
+    private BulkDmlResult afterDml(EntityPathBase<?> path, long rows, Set<Object> affected) {
+        int detached = detach(affected);
+        if (rows > 0)
+            changeTracker.changed(Set.of(path.getType()), true);
+
+        EntityPersister persister = persister(path.getType());
+        BulkDmlResult result = new BulkDmlResult(path.getType(), rows, detached,
+                Arrays.stream(persister.getPropertySpaces()).map(String::valueOf).collect(toList()),
+                persister.canWriteToCache() ? List.of(persister.getCacheAccessStrategy().getRegion().getName()) : List.of());
+        log.debug("bulk dml : {}", result);
+        return result;
+    }
+
+    // 영속성 컨텍스트에 있는 같은 타입의 엔티티 중 조건에 걸리는 것만 (조회 대상은 관리 중인 id 로 한정)
+    private Set<Object> affectedManagedEntities(EntityPathBase<?> path, Predicate predicate) {
+        Set<Object> affected = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<Object, Object> managedById = new HashMap<>();
+        for (Map.Entry<Object, EntityEntry> entry : persistenceContext().reentrantSafeEntityEntries()) {
+            if (path.getType().isInstance(entry.getKey()) && entry.getValue().getId() != null)
+                managedById.put(entry.getValue().getId(), entry.getKey());
+        }
+        if (managedById.isEmpty())
+            return affected;
+
+        SimplePath<Object> id = idPath(path);
+        List<Object> ids = new ArrayList<>(managedById.keySet());
+        for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+            List<Object> chunk = ids.subList(from, Math.min(ids.size(), from + IN_CHUNK));
+            for (Object matched : queryFactory.select(id).from(path).where(predicate, id.in(chunk)).fetch())
+                affected.add(managedById.get(matched));
+        }
+        return affected;
+    }
+
+    private int detach(Set<Object> affected) {
+        if (affected.isEmpty())
+            return 0;
+
+        // 바뀐 엔티티를 원소로 들고 있는 초기화된 컬렉션(Team.members 등)도 낡았으므로 그 주인을 함께 분리
+        Set<Object> owners = Collections.newSetFromMap(new IdentityHashMap<>());
+        persistenceContext().forEachCollectionEntry((collection, entry) -> {
+            if (collection.wasInitialized() && collection instanceof Collection
+                    && ((Collection<?>) collection).stream().anyMatch(affected::contains))
+                owners.add(collection.getOwner());
+        }, false);
+
+        affected.forEach(em::detach);
+        owners.removeAll(affected);
+        owners.forEach(em::detach);
+        return affected.size() + owners.size();
+    }
+
+    private SimplePath<Object> idPath(EntityPathBase<?> path) {
+        EntityType<?> entityType = em.getMetamodel().entity(path.getType());
+        String name = entityType.getId(entityType.getIdType().getJavaType()).getName();
+        return Expressions.path(Object.class, path, name);
+    }
+
+    private EntityPersister persister(Class<?> type) {
+        return em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getMetamodel().entityPersister(type);
+    }
+
+    private PersistenceContext persistenceContext() {
+        return em.unwrap(SessionImplementor.class).getPersistenceContext();
+    }
+}
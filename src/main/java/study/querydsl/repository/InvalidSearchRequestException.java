@@ -0,0 +1,14 @@
+package study.querydsl.repository;
+
+// 클라이언트가 보낸 검색 요청 값(커서, 정렬, 페이지 크기)이 잘못된 경우
+// 컨트롤러는 이 예외만 400 으로 바꾼다 (다른 IllegalArgumentException 은 내부 오류)
+public class InvalidSearchRequestException extends IllegalArgumentException {
+
+    public InvalidSearchRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidSearchRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,37 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.FactoryExpressionBase;
+
+import java.util.List;
+
+// 행마다 호출되는 newInstance 시간을 QueryMetricsContext 의 매핑 시간으로 더한다
+// select 절은 감싼 projection 과 같다
+final class MappingTimedProjection<T> extends FactoryExpressionBase<T> {
+    private final FactoryExpression<T> projection;
+
+    private MappingTimedProjection(FactoryExpression<T> projection) {
+        super(projection.getType());
+        this.projection = projection;
+    }
+
+    static <T> MappingTimedProjection<T> timed(FactoryExpression<T> projection) {
+        return new MappingTimedProjection<>(projection);
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return projection.getArgs();
+    }
+
+    @Override
+    public T newInstance(Object... args) {
+        long start = System.nanoTime();
+        try {
+            return projection.newInstance(args);
+        } finally {
+            QueryMetricsContext.mapped(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.ReadOnlyQueries.readOnly;
+
+// member.search.engine=COLUMNAR 일 때 search(condition) 를 메모리의 MemberColumnarSnapshot 에서 처리한다
+//  - 시작 후 백그라운드에서 스냅샷을 만들고, 그 전에는 JPA 로 (search 가 null 을 반환)
+//  - 회원 insert/update/delete 는 커밋 후 변경된 회원의 최신 값만 overlay 에 담아서 스냅샷 결과에 덮어쓴다
+//    overlay 가 max-overlay 를 넘으면 백그라운드에서 스냅샷을 새로 만든다
+//  - 벌크 DML, 팀 변경처럼 행 단위 내역이 없는 변경 뒤에는 새 스냅샷이 만들어질 때까지 JPA 로
+//  - 다시 만드는 동안 들어온 변경은 overlay 에 남겨 두었다가 새 스냅샷 위에 다시 덮어쓴다 (최신 값이므로 중복 적용돼도 같다)
+//  - 다시 만들다 실패하면 retry-backoff 부터 두 배씩 (최대 retry-backoff-max) 기다렸다가 다시 시도한다
+//  - 스냅샷은 primary 에서 읽는다 (복제 지연으로 replica 에 아직 없는 변경을 startSequence 로 overlay 에서 지우면 되살릴 방법이 없다)
+//    이벤트로 알 수 없는 변경(다른 인스턴스, 직접 실행한 SQL)도 있으므로 refresh-interval 마다 다시 만든다
+// 변경 이벤트는 결과 캐시(MemberSearchResultCache)보다 먼저 받아야 한다
+// (캐시를 먼저 비우면 그 사이의 검색이 overlay 반영 전 결과를 다시 캐시에 넣는다)
+@Slf4j
+@Component
+public class MemberColumnarIndex implements DisposableBean {
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate primaryTx;
+    private final boolean enabled;
+    private final int maxOverlay;
+    private final ScheduledExecutorService rebuilder;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final long retryBackoffMillis;
+    private final long maxRetryBackoffMillis;
+    private final long refreshIntervalMillis;
+    private long retryDelayMillis;
+
+    private final Object lock = new Object();
+    private volatile State state = new State(null, Collections.emptyMap());
+    private volatile boolean stale = true;
+    private long sequence;
+    private long staleSequence;
+
+    public MemberColumnarIndex(JPAQueryFactory queryFactory, PlatformTransactionManager transactionManager,
+                               @Value("${member.search.engine:JPA}") MemberSearchEngine engine,
+                               @Value("${member.search.columnar.max-overlay:10000}") int maxOverlay,
+                               @Value("${member.search.columnar.retry-backoff:1s}") Duration retryBackoff,
+                               @Value("${member.search.columnar.retry-backoff-max:5m}") Duration maxRetryBackoff,
+                               @Value("${member.search.columnar.refresh-interval:10m}") Duration refreshInterval) {
+        this.queryFactory = queryFactory;
+        // 읽기 전용이면 replica 로 라우팅되므로 일반 트랜잭션으로
+        this.primaryTx = new TransactionTemplate(transactionManager);
+        this.enabled = engine == MemberSearchEngine.COLUMNAR;
+        this.maxOverlay = maxOverlay;
+        this.retryBackoffMillis = retryBackoff.toMillis();
+        this.maxRetryBackoffMillis = maxRetryBackoff.toMillis();
+        this.retryDelayMillis = retryBackoffMillis;
+        this.refreshIntervalMillis = refreshInterval.toMillis();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("member-columnar-");
+        threadFactory.setDaemon(true);
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled)
+            return;
+        requestRebuild();
+        if (refreshIntervalMillis > 0)
+            rebuilder.scheduleWithFixedDelay(this::requestRebuild, refreshIntervalMillis, refreshIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 스냅샷이 없거나 낡았으면 null (호출하는 쪽에서 JPA 로)
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        State current = state;
+        if (!enabled || stale || current.snapshot == null)
+            return null;
+
+        // SQL 이 없으므로 열에서 DTO 를 만드는 시간 전체가 매핑 시간
+        long start = System.nanoTime();
+        List<MemberTeamDto> result = current.snapshot.search(condition, current.overlay.keySet());
+        for (OverlayRow row : current.overlay.values()) {
+            if (!row.deleted && row.matches(condition, current.snapshot))
+                result.add(row.toDto(current.snapshot));
+        }
+        QueryMetricsContext.mapped(System.nanoTime() - start);
+        return result;
+    }
+
+    public int snapshotSize() {
+        State current = state;
+        return current.snapshot == null ? 0 : current.snapshot.size();
+    }
+
+    public int overlaySize() {
+        return state.overlay.size();
+    }
+
+    // 스냅샷으로 검색할 수 있는 상태
+    boolean isReady() {
+        return enabled && !stale && state.snapshot != null;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onMemberDataChanged(MemberDataChangedEvent event) {
+        if (!enabled || (!event.affects(Member.class) && !event.affects(Team.class)))
+            return;
+        if (event.isBulk() || !event.isDeltasComplete() || event.affects(Team.class)) {
+            markStale();
+            return;
+        }
+
+        int overlaySize;
+        synchronized (lock) {
+            long changedAt = ++sequence;
+            Map<Long, OverlayRow> overlay = new HashMap<>(state.overlay);
+            for (MemberDelta delta : event.getMemberDeltas())
+                overlay.put(delta.getMemberId(), new OverlayRow(changedAt, delta));
+            state = new State(state.snapshot, overlay);
+            overlaySize = overlay.size();
+        }
+
+        // 다시 만드는 동안에도 쓰기가 계속 몰리면 overlay 를 버리고 낡은 것으로 처리
+        if (overlaySize > maxOverlay * 4)
+            markStale();
+        else if (overlaySize > maxOverlay)
+            requestRebuild();
+    }
+
+    private void markStale() {
+        synchronized (lock) {
+            staleSequence = ++sequence;
+            stale = true;
+            state = new State(state.snapshot, Collections.emptyMap());
+        }
+        requestRebuild();
+    }
+
+    private void requestRebuild() {
+        scheduleRebuild(0);
+    }
+
+    // 이미 예약된 재시도가 있으면 그때 다시 만든다 (그 전의 변경도 함께 반영된다)
+    private void scheduleRebuild(long delayMillis) {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilder.schedule(() -> {
+                rebuildPending.set(false);
+                rebuild();
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild() {
+        long startSequence;
+        synchronized (lock) {
+            startSequence = sequence;
+        }
+
+        long start = System.nanoTime();
+        MemberColumnarSnapshot snapshot;
+        try {
+            snapshot = primaryTx.execute(status -> load());
+        } catch (RuntimeException e) {
+            // 다시 만들 때까지는 JPA 로 (재시도는 rebuilder 스레드에서만 하므로 retryDelayMillis 는 동기화하지 않는다)
+            long delay = retryDelayMillis;
+            retryDelayMillis = Math.min(retryDelayMillis * 2, maxRetryBackoffMillis);
+            log.warn("member columnar index rebuild failed, retrying in {} ms", delay, e);
+            scheduleRebuild(delay);
+            return;
+        }
+        retryDelayMillis = retryBackoffMillis;
+
+        synchronized (lock) {
+            Map<Long, OverlayRow> overlay = new HashMap<>();
+            state.overlay.forEach((memberId, row) -> {
+                if (row.changedAt > startSequence)
+                    overlay.put(memberId, row);
+            });
+            state = new State(snapshot, overlay);
+            stale = staleSequence > startSequence;
+        }
+        log.info("member columnar index rebuilt : {} members in {} ms", snapshot.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private MemberColumnarSnapshot load() {
+        Long count = queryFactory.select(member.count()).from(member).fetchOne();
+        MemberColumnarSnapshot.Builder builder = new MemberColumnarSnapshot.Builder(
+                (int) Math.min(count == null ? 0 : count, Integer.MAX_VALUE - 8));
+        for (Tuple row : queryFactory.select(team.id, team.name).from(team).fetch())
+            builder.team(row.get(team.id), row.get(team.name));
+
+        try (Stream<Tuple> rows = readOnly(queryFactory
+                .select(member.id, member.username, member.age, member.team.id)
+                .from(member))
+                .setHint(QueryHints.HINT_FETCH_SIZE, 10_000)
+                .stream()) {
+            rows.forEach(row -> builder.member(row.get(member.id), row.get(member.username),
+                    row.get(member.age), row.get(member.team.id)));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void destroy() {
+        rebuilder.shutdownNow();
+    }
+
+    private static class State {
+        private final MemberColumnarSnapshot snapshot;
+        private final Map<Long, OverlayRow> overlay;
+
+        State(MemberColumnarSnapshot snapshot, Map<Long, OverlayRow> overlay) {
+            this.snapshot = snapshot;
+            this.overlay = overlay;
+        }
+    }
+
+    // 스냅샷 이후에 바뀐 회원의 최신 값 (deleted 면 결과에서 빠진다)
+    private static class OverlayRow {
+        private final long changedAt;
+        private final Long memberId;
+        private final boolean deleted;
+        private final String username;
+        private final int age;
+        private final Long teamId;
+
+        OverlayRow(long changedAt, MemberDelta delta) {
+            this.changedAt = changedAt;
+            this.memberId = delta.getMemberId();
+            this.deleted = !delta.isAfter();
+            this.username = delta.getAfterUsername();
+            this.age = delta.getAfterAge();
+            this.teamId = delta.getAfterTeamId();
+        }
+
+        boolean matches(MemberSearchCondition condition, MemberColumnarSnapshot snapshot) {
+            return (!hasText(condition.getUsername()) || condition.getUsername().equals(username))
+                    && (!hasText(condition.getTeamName()) || Objects.equals(condition.getTeamName(), snapshot.teamName(teamId)))
+                    && (condition.getAgeGoe() == null || age >= condition.getAgeGoe())
+                    && (condition.getAgeLoe() == null || age <= condition.getAgeLoe());
+        }
+
+        MemberTeamDto toDto(MemberColumnarSnapshot snapshot) {
+            return new MemberTeamDto(memberId, username, age, teamId, snapshot.teamName(teamId));
+        }
+    }
+}
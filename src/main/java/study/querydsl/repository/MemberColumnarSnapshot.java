@@ -0,0 +1,275 @@
+package study.querydsl.repository;
+
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.util.StringUtils.hasText;
+
+// 회원/팀의 열 지향 스냅샷 (만든 뒤에는 바뀌지 않는다)
+//  - 열 : long[] id, int[] age, int[] 팀 코드(팀 id 사전 인코딩), username 은 UTF-8 바이트 풀 + 오프셋
+//  - username 해시 인덱스 : 버킷 배열 + 체인 배열 (모두 int[], 행 번호 + 1 로 저장하고 0 은 비어 있음)
+//  - rowsByAge : 나이 순 행 번호, rowsByTeam : 팀별 구간 안에서 나이 순 행 번호 -> 나이 범위는 이진 탐색
+// 조건별 비용은 O(log n + 결과 수) (조건이 없으면 전체)
+// 1000만 건 기준 대략 500MB (열 + 인덱스)
+final class MemberColumnarSnapshot {
+    private static final int NO_TEAM = -1;
+
+    private final int size;
+    private final long[] ids;
+    private final int[] ages;
+    private final int[] teamCodes;
+    private final byte[] usernameBytes;
+    private final int[] usernameOffsets;
+    private final BitSet nullUsernames;
+
+    private final long[] teamIds;
+    private final String[] teamNames;
+    private final Map<Long, Integer> codeByTeamId;
+    private final Map<String, int[]> codesByTeamName;
+
+    private final int[] usernameBuckets;
+    private final int[] usernameChain;
+    private final int[] rowsByAge;
+    private final int[] rowsByTeam;
+    // 팀 코드 c 의 구간은 [teamStart[c], teamStart[c + 1]), 마지막 구간은 팀 없는 회원
+    private final int[] teamStart;
+
+    private MemberColumnarSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.ages = Arrays.copyOf(builder.ages, size);
+        this.teamCodes = Arrays.copyOf(builder.teamCodes, size);
+        this.usernameBytes = Arrays.copyOf(builder.usernameBytes, builder.usernameOffsets[size]);
+        this.usernameOffsets = Arrays.copyOf(builder.usernameOffsets, size + 1);
+        this.nullUsernames = builder.nullUsernames;
+
+        this.teamIds = Arrays.copyOf(builder.teamIds, builder.teamCount);
+        this.teamNames = Arrays.copyOf(builder.teamNames, builder.teamCount);
+        this.codeByTeamId = builder.codeByTeamId;
+        Map<String, int[]> codesByTeamName = new HashMap<>();
+        for (int code = 0; code < teamNames.length; code++) {
+            if (teamNames[code] == null)
+                continue;
+            int[] codes = codesByTeamName.getOrDefault(teamNames[code], new int[0]);
+            codes = Arrays.copyOf(codes, codes.length + 1);
+            codes[codes.length - 1] = code;
+            codesByTeamName.put(teamNames[code], codes);
+        }
+        this.codesByTeamName = codesByTeamName;
+
+        int buckets = Integer.highestOneBit(Math.max(16, size - 1)) << 1;
+        this.usernameBuckets = new int[buckets];
+        this.usernameChain = new int[size];
+        for (int row = 0; row < size; row++) {
+            if (nullUsernames.get(row))
+                continue;
+            int bucket = hash(usernameBytes, usernameOffsets[row], usernameOffsets[row + 1]) & (buckets - 1);
+            usernameChain[row] = usernameBuckets[bucket];
+            usernameBuckets[bucket] = row + 1;
+        }
+
+        this.rowsByAge = sortByAge();
+        this.teamStart = new int[teamIds.length + 2];
+        this.rowsByTeam = groupByTeam();
+    }
+
+    int size() {
+        return size;
+    }
+
+    String teamName(Long teamId) {
+        Integer code = teamId == null ? null : codeByTeamId.get(teamId);
+        return code == null ? null : teamNames[code];
+    }
+
+    // excludedIds : 스냅샷 이후에 바뀐 회원 (호출하는 쪽에서 최신 값으로 따로 더한다)
+    List<MemberTeamDto> search(MemberSearchCondition condition, Set<Long> excludedIds) {
+        List<MemberTeamDto> result = new ArrayList<>();
+        int ageGoe = condition.getAgeGoe() == null ? Integer.MIN_VALUE : condition.getAgeGoe();
+        int ageLoe = condition.getAgeLoe() == null ? Integer.MAX_VALUE : condition.getAgeLoe();
+        int[] codes = null;
+        if (hasText(condition.getTeamName())) {
+            codes = codesByTeamName.get(condition.getTeamName());
+            if (codes == null)
+                return result;
+        }
+
+        if (hasText(condition.getUsername())) {
+            byte[] username = condition.getUsername().getBytes(StandardCharsets.UTF_8);
+            int bucket = hash(username, 0, username.length) & (usernameBuckets.length - 1);
+            for (int row = usernameBuckets[bucket] - 1; row >= 0; row = usernameChain[row] - 1) {
+                if (usernameEquals(row, username) && ages[row] >= ageGoe && ages[row] <= ageLoe
+                        && (codes == null || contains(codes, teamCodes[row])))
+                    add(row, excludedIds, result);
+            }
+        } else if (codes != null) {
+            for (int code : codes)
+                addAgeRange(rowsByTeam, teamStart[code], teamStart[code + 1], ageGoe, ageLoe, excludedIds, result);
+        } else if (condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+            addAgeRange(rowsByAge, 0, size, ageGoe, ageLoe, excludedIds, result);
+        } else {
+            for (int row = 0; row < size; row++)
+                add(row, excludedIds, result);
+        }
+        return result;
+    }
+
+    private void addAgeRange(int[] rows, int from, int to, int ageGoe, int ageLoe,
+                             Set<Long> excludedIds, List<MemberTeamDto> result) {
+        // rows[from, to) 는 나이 순이므로 ageGoe 이상인 첫 위치부터 ageLoe 를 넘을 때까지
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ages[rows[mid]] < ageGoe)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        for (int i = low; i < to && ages[rows[i]] <= ageLoe; i++)
+            add(rows[i], excludedIds, result);
+    }
+
+    private void add(int row, Set<Long> excludedIds, List<MemberTeamDto> result) {
+        if (!excludedIds.isEmpty() && excludedIds.contains(ids[row]))
+            return;
+        int code = teamCodes[row];
+        result.add(new MemberTeamDto(ids[row], username(row), ages[row],
+                code == NO_TEAM ? null : teamIds[code], code == NO_TEAM ? null : teamNames[code]));
+    }
+
+    private String username(int row) {
+        if (nullUsernames.get(row))
+            return null;
+        return new String(usernameBytes, usernameOffsets[row], usernameOffsets[row + 1] - usernameOffsets[row],
+                StandardCharsets.UTF_8);
+    }
+
+    private boolean usernameEquals(int row, byte[] username) {
+        return Arrays.equals(usernameBytes, usernameOffsets[row], usernameOffsets[row + 1], username, 0, username.length);
+    }
+
+    // (age, row) 를 long 하나로 묶어서 정렬 : 상위 32비트가 부호 있는 나이이므로 나이 순, 같은 나이는 행 순
+    private int[] sortByAge() {
+        long[] keys = new long[size];
+        for (int row = 0; row < size; row++)
+            keys[row] = ((long) ages[row] << 32) | row;
+        Arrays.parallelSort(keys);
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++)
+            rows[i] = (int) keys[i];
+        return rows;
+    }
+
+    // 나이 순 행을 팀별로 안정적으로 나눠 담으면(계수 정렬) 팀 구간 안에서도 나이 순이 유지된다
+    private int[] groupByTeam() {
+        int noTeam = teamIds.length;
+        for (int row = 0; row < size; row++)
+            teamStart[segment(row, noTeam) + 1]++;
+        for (int segment = 0; segment <= noTeam; segment++)
+            teamStart[segment + 1] += teamStart[segment];
+
+        int[] next = Arrays.copyOf(teamStart, teamStart.length);
+        int[] rows = new int[size];
+        for (int row : rowsByAge)
+            rows[next[segment(row, noTeam)]++] = row;
+        return rows;
+    }
+
+    private int segment(int row, int noTeam) {
+        return teamCodes[row] == NO_TEAM ? noTeam : teamCodes[row];
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int candidate : values) {
+            if (candidate == value)
+                return true;
+        }
+        return false;
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        int hash = 1;
+        for (int i = from; i < to; i++)
+            hash = 31 * hash + bytes[i];
+        return hash ^ (hash >>> 16);
+    }
+
+    // 팀을 먼저 모두 넣고 회원을 넣는다
+    static class Builder {
+        private int size;
+        private long[] ids;
+        private int[] ages;
+        private int[] teamCodes;
+        private byte[] usernameBytes;
+        private int[] usernameOffsets;
+        private final BitSet nullUsernames = new BitSet();
+
+        private int teamCount;
+        private long[] teamIds = new long[16];
+        private String[] teamNames = new String[16];
+        private final Map<Long, Integer> codeByTeamId = new HashMap<>();
+
+        Builder(int expectedMembers) {
+            int capacity = Math.max(16, expectedMembers);
+            this.ids = new long[capacity];
+            this.ages = new int[capacity];
+            this.teamCodes = new int[capacity];
+            this.usernameBytes = new byte[capacity * 8];
+            this.usernameOffsets = new int[capacity + 1];
+        }
+
+        Builder team(long teamId, String name) {
+            if (teamCount == teamIds.length) {
+                teamIds = Arrays.copyOf(teamIds, teamCount * 2);
+                teamNames = Arrays.copyOf(teamNames, teamCount * 2);
+            }
+            codeByTeamId.put(teamId, teamCount);
+            teamIds[teamCount] = teamId;
+            teamNames[teamCount++] = name;
+            return this;
+        }
+
+        Builder member(long id, String username, int age, Long teamId) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+                teamCodes = Arrays.copyOf(teamCodes, capacity);
+                usernameOffsets = Arrays.copyOf(usernameOffsets, capacity + 1);
+            }
+            ids[size] = id;
+            ages[size] = age;
+            // 팀 목록을 읽은 뒤에 생긴 팀은 이름 없이 코드만 준다 (팀 변경 이벤트로 곧 다시 만들어진다)
+            if (teamId != null && !codeByTeamId.containsKey(teamId))
+                team(teamId, null);
+            teamCodes[size] = teamId == null ? NO_TEAM : codeByTeamId.get(teamId);
+
+            int offset = usernameOffsets[size];
+            if (username == null) {
+                nullUsernames.set(size);
+            } else {
+                byte[] bytes = username.getBytes(StandardCharsets.UTF_8);
+                if (offset + bytes.length > usernameBytes.length)
+                    usernameBytes = Arrays.copyOf(usernameBytes, Math.max(usernameBytes.length * 2, offset + bytes.length));
+                System.arraycopy(bytes, 0, usernameBytes, offset, bytes.length);
+                offset += bytes.length;
+            }
+            usernameOffsets[++size] = offset;
+            return this;
+        }
+
+        MemberColumnarSnapshot build() {
+            return new MemberColumnarSnapshot(this);
+        }
+    }
+}
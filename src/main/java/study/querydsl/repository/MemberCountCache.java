@@ -0,0 +1,72 @@
+package study.querydsl.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// 정규화된 MemberSearchCondition 을 키로 하는 count 결과 캐시
+@Component
+public class MemberCountCache {
+    private final Map<MemberSearchCondition, CachedTotal> totals = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    public MemberCountCache(@Value("${member.count-cache.ttl:5s}") Duration ttl,
+                            @Value("${member.count-cache.max-entries:10000}") int maxEntries) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    public long total(MemberSearchCondition condition, MemberCountMode mode, boolean firstPage, LongSupplier countQuery) {
+        if (mode == MemberCountMode.EXACT)
+            return countQuery.getAsLong();
+
+        MemberSearchCondition key = condition.normalize();
+        long now = System.nanoTime();
+        CachedTotal cached = totals.get(key);
+        if (cached != null) {
+            if (mode == MemberCountMode.ESTIMATED && !firstPage)
+                return cached.total;
+            if (mode == MemberCountMode.CACHED && now - cached.loadedAt < ttlNanos)
+                return cached.total;
+        }
+
+        long total = countQuery.getAsLong();
+        if (totals.size() >= maxEntries)
+            evictExpired(now);
+        totals.put(key, new CachedTotal(total, now));
+        return total;
+    }
+
+    @EventListener
+    public void onMemberDataChanged(MemberDataChangedEvent event) {
+        evictAll();
+    }
+
+    public void evictAll() {
+        totals.clear();
+    }
+
+    private void evictExpired(long now) {
+        totals.values().removeIf(cached -> now - cached.loadedAt >= ttlNanos);
+        // 모두 유효한 항목이라면 크기 제한을 지키기 위해 비운다
+        if (totals.size() >= maxEntries)
+            totals.clear();
+    }
+
+    private static class CachedTotal {
+        private final long total;
+        private final long loadedAt;
+
+        CachedTotal(long total, long loadedAt) {
+            this.total = total;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
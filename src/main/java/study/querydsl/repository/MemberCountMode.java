@@ -0,0 +1,10 @@
+package study.querydsl.repository;
+
+public enum MemberCountMode {
+    // 매번 count 쿼리 실행 (첫/마지막 페이지 생략은 PageableExecutionUtils 가 처리)
+    EXACT,
+    // 같은 검색 조건의 total 을 TTL 동안 재사용
+    CACHED,
+    // 첫 페이지에서만 count 를 갱신하고, 2페이지부터는 마지막으로 알려진 total 을 그대로 사용
+    ESTIMATED
+}
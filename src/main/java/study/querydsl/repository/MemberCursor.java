@@ -0,0 +1,45 @@
+package study.querydsl.repository;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// 클라이언트에게는 불투명한 토큰으로만 노출되는 키셋 커서
+// 토큰 형식 : base64url("정렬키:마지막 id:마지막 정렬 값"), 정렬 값이 null 이면 base64url("정렬키:마지막 id")
+@Getter
+public class MemberCursor {
+    private final MemberSortKey sortKey;
+    private final Long lastId;
+    private final String lastValue;
+
+    public MemberCursor(MemberSortKey sortKey, Long lastId, String lastValue) {
+        this.sortKey = sortKey;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    public String encode() {
+        String raw = sortKey.name() + ":" + lastId + (lastValue == null ? "" : ":" + lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (parts.length < 2)
+                throw new InvalidSearchRequestException("잘못된 커서입니다: " + token);
+            MemberSortKey sortKey = MemberSortKey.valueOf(parts[0]);
+            if (parts.length == 2 && !sortKey.isNullable())
+                throw new InvalidSearchRequestException("잘못된 커서입니다: " + token);
+            String lastValue = parts.length == 3 ? parts[2] : null;
+            if (lastValue != null)
+                sortKey.validate(lastValue);
+            return new MemberCursor(sortKey, Long.valueOf(parts[1]), lastValue);
+        } catch (IllegalArgumentException e) {
+            // Base64, enum, 숫자 파싱(id, 정렬 값) 실패 모두 IllegalArgumentException 계열
+            throw new InvalidSearchRequestException("잘못된 커서입니다: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package study.querydsl.repository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+// Member/Team 데이터가 바뀌었음을 알리는 이벤트 (커밋 후 발행)
+// 이 데이터를 캐시하거나 집계해 둔 컴포넌트는 이 이벤트로 무효화한다
+public class MemberDataChangedEvent {
+    private final Set<Class<?>> entityTypes;
+    private final boolean bulk;
+    private final List<MemberDelta> memberDeltas;
+    private final boolean deltasComplete;
+
+    public MemberDataChangedEvent(Set<Class<?>> entityTypes, boolean bulk) {
+        this(entityTypes, bulk, List.of(), false);
+    }
+
+    public MemberDataChangedEvent(Set<Class<?>> entityTypes, boolean bulk,
+                                  List<MemberDelta> memberDeltas, boolean deltasComplete) {
+        this.entityTypes = Collections.unmodifiableSet(entityTypes);
+        this.bulk = bulk;
+        this.memberDeltas = Collections.unmodifiableList(memberDeltas);
+        this.deltasComplete = deltasComplete;
+    }
+
+    public Set<Class<?>> getEntityTypes() {
+        return entityTypes;
+    }
+
+    // 벌크 DML(영속성 컨텍스트를 거치지 않는 변경) 여부
+    public boolean isBulk() {
+        return bulk;
+    }
+
+    public boolean affects(Class<?> entityType) {
+        return entityTypes.contains(entityType);
+    }
+
+    // 영속성 컨텍스트를 거친 회원 변경의 행 단위 내역
+    public List<MemberDelta> getMemberDeltas() {
+        return memberDeltas;
+    }
+
+    // false 면 memberDeltas 에 빠진 회원 변경이 있다 (벌크 DML, 변경 전 상태를 모르는 update, 한도 초과)
+    public boolean isDeltasComplete() {
+        return deltasComplete;
+    }
+}
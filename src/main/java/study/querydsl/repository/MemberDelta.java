@@ -0,0 +1,44 @@
+package study.querydsl.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+// 회원 한 건의 변경 전/후 (팀 id, 나이, 변경 후 username). insert 는 변경 전이, delete 는 변경 후가 없다
+// 집계(롤업), 인메모리 인덱스를 전체 재계산 없이 갱신하는 데 쓴다
+@Getter
+@ToString
+public class MemberDelta {
+    private final Long memberId;
+    private final boolean before;
+    private final Long beforeTeamId;
+    private final int beforeAge;
+    private final boolean after;
+    private final String afterUsername;
+    private final Long afterTeamId;
+    private final int afterAge;
+
+    private MemberDelta(Long memberId, boolean before, Long beforeTeamId, int beforeAge,
+                        boolean after, String afterUsername, Long afterTeamId, int afterAge) {
+        this.memberId = memberId;
+        this.before = before;
+        this.beforeTeamId = beforeTeamId;
+        this.beforeAge = beforeAge;
+        this.after = after;
+        this.afterUsername = afterUsername;
+        this.afterTeamId = afterTeamId;
+        this.afterAge = afterAge;
+    }
+
+    public static MemberDelta inserted(Long memberId, String username, Long teamId, int age) {
+        return new MemberDelta(memberId, false, null, 0, true, username, teamId, age);
+    }
+
+    public static MemberDelta updated(Long memberId, Long beforeTeamId, int beforeAge,
+                                      String username, Long afterTeamId, int afterAge) {
+        return new MemberDelta(memberId, true, beforeTeamId, beforeAge, true, username, afterTeamId, afterAge);
+    }
+
+    public static MemberDelta deleted(Long memberId, Long teamId, int age) {
+        return new MemberDelta(memberId, true, teamId, age, false, null, null, 0);
+    }
+}
@@ -0,0 +1,88 @@
+package study.querydsl.repository;
+
+import org.hibernate.engine.query.spi.HQLQueryPlan;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// search 를 JDBC 로 바로 실행한다 (member.search.engine=JDBC)
+// SQL 은 MemberSearchPlanCache 의 JPQL 을 Hibernate 가 번역한 것을 조건 조합별로 한 번만 얻어서 쓰므로
+// 엔티티 매핑이 바뀌어도 JPA 경로와 같은 SQL 이 나간다
+// flush 가 일어나지 않으므로 쓰기 트랜잭션 안에서는 쓰지 않는다 (MemberRepositoryImpl 에서 JPA 로)
+@Component
+public class MemberJdbcSearch {
+    private final MemberSearchPlanCache planCache;
+    private final SessionFactoryImplementor sessionFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final AtomicReferenceArray<String> sqls = new AtomicReferenceArray<>(MemberSearchPlanCache.SHAPES);
+
+    public MemberJdbcSearch(MemberSearchPlanCache planCache, EntityManagerFactory emf, JdbcTemplate jdbcTemplate,
+                            @Value("${member.search.engine:JPA}") MemberSearchEngine engine) {
+        this.planCache = planCache;
+        this.sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = engine == MemberSearchEngine.JDBC;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        int shape = MemberSearchPlanCache.shapeOf(condition);
+        // 바인딩 순서는 MemberSearchPlanCache 와 같다 (username, teamName, ageGoe, ageLoe)
+        return jdbcTemplate.query(sqlFor(shape), ps -> {
+            int position = 1;
+            if ((shape & MemberSearchPlanCache.USERNAME) != 0)
+                ps.setString(position++, condition.getUsername());
+            if ((shape & MemberSearchPlanCache.TEAM_NAME) != 0)
+                ps.setString(position++, condition.getTeamName());
+            if ((shape & MemberSearchPlanCache.AGE_GOE) != 0)
+                ps.setInt(position++, condition.getAgeGoe());
+            if ((shape & MemberSearchPlanCache.AGE_LOE) != 0)
+                ps.setInt(position, condition.getAgeLoe());
+        }, (ResultSetExtractor<List<MemberTeamDto>>) MemberJdbcSearch::map);
+    }
+
+    // 커서 이동(fetch)은 빼고 행 매핑에 걸린 시간만 QueryMetricsContext 에 더한다
+    private static List<MemberTeamDto> map(ResultSet rs) throws SQLException {
+        List<MemberTeamDto> rows = new ArrayList<>();
+        long mappingNanos = 0;
+        while (rs.next()) {
+            long start = System.nanoTime();
+            rows.add(MemberTeamDtoRowMapper.INSTANCE.mapRow(rs, rows.size()));
+            mappingNanos += System.nanoTime() - start;
+        }
+        QueryMetricsContext.mapped(mappingNanos);
+        return rows;
+    }
+
+    String sqlFor(int shape) {
+        String sql = sqls.get(shape);
+        if (sql != null)
+            return sql;
+        sqls.compareAndSet(shape, null, translate(planCache.planFor(shape).getJpql()));
+        return sqls.get(shape);
+    }
+
+    private String translate(String jpql) {
+        HQLQueryPlan plan = sessionFactory.getQueryPlanCache().getHQLQueryPlan(jpql, false, Collections.emptyMap());
+        String[] sql = plan.getSqlStrings();
+        if (sql.length != 1)
+            throw new IllegalStateException("검색 JPQL 이 SQL 한 문장으로 번역되지 않음: " + jpql);
+        return sql[0];
+    }
+}
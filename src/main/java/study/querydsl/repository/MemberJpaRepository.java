@@ -2,10 +2,10 @@ package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
-import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
@@ -21,12 +21,15 @@ import static org.springframework.util.StringUtils.hasText;
 import static org.springframework.util.StringUtils.isEmpty;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.ReadOnlyQueries.readOnly;
 
 @RequiredArgsConstructor
 @Repository
 public class MemberJpaRepository {
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchPlanCache planCache;
+    private final MemberSearchResultCache resultCache;
 
 
     public void save(Member member) {
@@ -55,6 +58,22 @@ public class MemberJpaRepository {
         return queryFactory.selectFrom(member).where(member.username.eq(username)).fetch();
     }
 
+    // 화면 출력용 : 읽기 전용으로 로딩해서 dirty checking 스냅샷을 만들지 않는다 (수정해도 반영되지 않음)
+    public List<Member> findAllReadOnly_Querydsl() {
+        return readOnly(queryFactory.selectFrom(member)).fetch();
+    }
+
+    // fetch join 으로 team 까지 한 번에 조회
+    public List<Member> findAllWithTeam_Querydsl() {
+        return queryFactory.selectFrom(member).leftJoin(member.team, team).fetchJoin().fetch();
+    }
+
+    public List<Member> findByUsernameWithTeam_Querydsl(String username) {
+        return queryFactory.selectFrom(member).leftJoin(member.team, team).fetchJoin()
+                .where(member.username.eq(username)).fetch();
+    }
+
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
         BooleanBuilder builder = new BooleanBuilder();
         if(hasText(condition.getUsername()))
@@ -76,37 +95,9 @@ public class MemberJpaRepository {
         ).from(member).leftJoin(member.team, team).where(builder).fetch();
     }
 
+    // 조건의 조합(shape)별로 미리 만들어 둔 JPQL 에 값만 바인딩, 같은 조건의 결과는 캐시에서
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory.select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")
-                )
-        ).from(member).leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
-    }
-
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
-    }
-
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
-    }
-
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe == null ? null : member.age.goe(ageGoe);
-    }
-
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe == null ? null : member.age.loe(ageLoe);
+        return resultCache.get(condition, () -> planCache.search(condition));
     }
 }
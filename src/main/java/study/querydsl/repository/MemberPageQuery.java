@@ -0,0 +1,44 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import lombok.Getter;
+import org.springframework.data.domain.Pageable;
+
+// MemberSearchPolicy 가 검사하고 바꾼 페이지 요청
+//  - pageable : 크기가 제한되고 정렬이 정해진 요청 (응답 Page 에 그대로 쓴다)
+//  - offset, seek : 실제로 실행할 offset 과 키셋 조건 (깊은 offset 을 키셋으로 바꿨다면 seek 이 있고 offset 은 줄어든다)
+@Getter
+public class MemberPageQuery {
+    private final Pageable pageable;
+    private final MemberSortKey sortKey;
+    private final boolean descending;
+    private final long offset;
+    private final BooleanExpression seek;
+
+    // 경계 기록용 (MemberSearchPolicy.recordBoundary)
+    final MemberSearchPolicy.BoundaryGroup group;
+    final long generation;
+
+    MemberPageQuery(Pageable pageable, MemberSortKey sortKey, boolean descending, long offset,
+                    BooleanExpression seek, MemberSearchPolicy.BoundaryGroup group, long generation) {
+        this.pageable = pageable;
+        this.sortKey = sortKey;
+        this.descending = descending;
+        this.offset = offset;
+        this.seek = seek;
+        this.group = group;
+        this.generation = generation;
+    }
+
+    // cursor 이후부터 remaining 만큼 건너뛰는 키셋 페이지 (IndexAdvisor 는 경계 없이 이걸로 키셋 쿼리를 만든다)
+    public MemberPageQuery seekFrom(MemberCursor cursor, long remaining) {
+        BooleanExpression seek = descending ? sortKey.before(cursor.getLastValue(), cursor.getLastId())
+                : sortKey.after(cursor.getLastValue(), cursor.getLastId());
+        return new MemberPageQuery(pageable, sortKey, descending, remaining, seek, group, generation);
+    }
+
+    public OrderSpecifier<?>[] getOrderSpecifiers() {
+        return sortKey.orderSpecifiers(descending);
+    }
+}
@@ -1,10 +1,20 @@
 package study.querydsl.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import study.querydsl.entity.Member;
 
 import java.util.List;
 
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
     List<Member> findByUsername(String username);
+
+    // team 까지 한 번에 조회 (member.getTeam() 접근 시 추가 쿼리 없음)
+    @EntityGraph(attributePaths = "team")
+    List<Member> findWithTeamByUsername(String username);
+
+    @EntityGraph(attributePaths = "team")
+    @Query("select m from Member m")
+    List<Member> findAllWithTeam();
 }
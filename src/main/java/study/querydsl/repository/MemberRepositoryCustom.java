@@ -2,13 +2,18 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.MemberCursorPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
     List<MemberTeamDto> search(MemberSearchCondition condition);
     Page<MemberTeamDto> searchSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchComplex(MemberSearchCondition condition, Pageable pageable);
+    Page<MemberTeamDto> searchComplex(MemberSearchCondition condition, Pageable pageable, MemberCountMode countMode);
+    Stream<MemberTeamDto> searchStream(MemberSearchCondition condition, int fetchSize);
+    MemberCursorPage searchByCursor(MemberSearchCondition condition, MemberSortKey sortKey, String cursor, int size);
 }
@@ -1,22 +1,26 @@
 package study.querydsl.repository;
 
-import com.querydsl.core.QueryResults;
-import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberCursorPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
-import study.querydsl.entity.Member;
 
 import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
-import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.repository.MappingTimedProjection.timed;
+import static study.querydsl.repository.ReadOnlyQueries.readOnly;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
@@ -25,29 +29,80 @@ import static study.querydsl.entity.QTeam.team;
 public class MemberRepositoryImpl implements MemberRepositoryCustom{
 
     private final JPAQueryFactory queryFactory;
+    private final MemberCountCache countCache;
+    private final MemberSearchPlanCache planCache;
+    private final MemberSearchResultCache resultCache;
+    private final MemberColumnarIndex columnarIndex;
+    private final MemberJdbcSearch jdbcSearch;
+    private final MemberSearchPolicy searchPolicy;
+    private final MemberSearchQueries queries;
+    private final ParallelPageExecutor parallelPageExecutor;
 
     @Override
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory.select(new QMemberTeamDto(
-                                member.id.as("memberId"),
-                                member.username,
-                                member.age,
-                                team.id.as("teamId"),
-                                team.name.as("teamName")
-                        )
-                ).from(member).leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+        return resultCache.get(condition, () -> searchWithEngine(condition));
+    }
+
+    // member.search.engine 에 따라 처리
+    // 인메모리 인덱스는 커밋된 데이터만 보고 JDBC 경로는 flush 를 하지 않으므로 쓰기 트랜잭션 안에서는 JPA
+    private List<MemberTeamDto> searchWithEngine(MemberSearchCondition condition) {
+        boolean writeTransaction = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (writeTransaction)
+            return planCache.search(condition);
+
+        if (columnarIndex.isEnabled()) {
+            List<MemberTeamDto> result = columnarIndex.search(condition);
+            if (result != null)
+                return result;
+        } else if (jdbcSearch.isEnabled()) {
+            return jdbcSearch.search(condition);
+        }
+        return planCache.search(condition);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<MemberTeamDto> searchSimple(MemberSearchCondition condition, Pageable pageable) {
-        QueryResults<MemberTeamDto> results = queryFactory.select(new QMemberTeamDto(
+        MemberPageQuery page = searchPolicy.resolve(condition, pageable);
+        List<MemberTeamDto> content = queries.pageContent(condition, page).fetch();
+        searchPolicy.recordBoundary(page, content);
+        // 키셋으로 바뀐 경우 seek 조건이 count 에 섞이지 않도록 count 는 따로
+        long total = queries.countQuery(condition).fetchOne();
+        return new PageImpl<>(content, page.getPageable(), total);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MemberTeamDto> searchComplex(MemberSearchCondition condition, Pageable pageable) {
+        return searchComplex(condition, pageable, MemberCountMode.EXACT);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MemberTeamDto> searchComplex(MemberSearchCondition condition, Pageable pageable, MemberCountMode countMode) {
+        MemberPageQuery page = searchPolicy.resolve(condition, pageable);
+        Supplier<List<MemberTeamDto>> content = () -> {
+            List<MemberTeamDto> rows = queries.pageContent(condition, page).fetch();
+            searchPolicy.recordBoundary(page, rows);
+            return rows;
+        };
+
+        //CountQuery 최적화 : 첫/마지막 페이지는 생략, 나머지는 countMode 에 따라 캐시된 total 사용
+        LongSupplier total = () -> countCache.total(condition, countMode, page.getPageable().getPageNumber() == 0,
+                () -> queries.countQuery(condition).fetchOne());
+
+        if (parallelPageExecutor.isEnabled())
+            return parallelPageExecutor.getPage(page.getPageable(), content, total);
+        return PageableExecutionUtils.getPage(content.get(), page.getPageable(), total);
+    }
+
+    // forward-only 커서(ScrollableResults)로 읽어서 결과 전체를 메모리에 올리지 않는다
+    // 호출하는 쪽에서 트랜잭션을 열고 스트림을 닫아야 한다
+    @Override
+    public Stream<MemberTeamDto> searchStream(MemberSearchCondition condition, int fetchSize) {
+        return readOnly(queryFactory.select(new QMemberTeamDto(
                                 member.id.as("memberId"),
                                 member.username,
                                 member.age,
@@ -55,70 +110,39 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
                                 team.name.as("teamName")
                         )
                 ).from(member).leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                ).offset(pageable.getOffset()).limit(pageable.getPageSize())
-                .fetchResults();
-        List<MemberTeamDto> content = results.getResults();
-        long total = results.getTotal();
-        return new PageImpl<>(content, pageable, total);
+                .where(queries.where(condition, null)))
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .stream();
     }
 
     @Override
-    public Page<MemberTeamDto> searchComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> content = queryFactory.select(new QMemberTeamDto(
+    @Transactional(readOnly = true)
+    public MemberCursorPage searchByCursor(MemberSearchCondition condition, MemberSortKey sortKey, String cursor, int size) {
+        // 커서가 있으면 커서에 담긴 정렬 키를 따른다 (페이지 사이에 정렬이 바뀌지 않도록)
+        MemberCursor last = cursor == null ? null : MemberCursor.decode(cursor);
+        MemberSortKey key = last == null ? sortKey : last.getSortKey();
+        int pageSize = searchPolicy.pageSize(size);
+
+        // offset 없이 마지막 (정렬 값, id) 이후부터 pageSize + 1 건만 읽어서 다음 페이지 존재 여부를 판단
+        List<MemberTeamDto> rows = queryFactory.select(timed(new QMemberTeamDto(
                                 member.id.as("memberId"),
                                 member.username,
                                 member.age,
                                 team.id.as("teamId"),
                                 team.name.as("teamName")
-                        )
+                        ))
                 ).from(member).leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                ).offset(pageable.getOffset()).limit(pageable.getPageSize())
+                .where(queries.where(condition, last == null ? null : key.after(last.getLastValue(), last.getLastId())))
+                .orderBy(key.orderSpecifiers())
+                .limit(pageSize + 1)
                 .fetch();
 
-        // 카운트 쿼리 최적화 가능
-//        long total = queryFactory.selectFrom(member).leftJoin(member.team, team)
-//                .where(usernameEq(condition.getUsername()),
-//                        teamNameEq(condition.getTeamName()),
-//                        ageGoe(condition.getAgeGoe()),
-//                        ageLoe(condition.getAgeLoe()))
-//                .fetchCount();
-
-        JPAQuery<Member> countQuery = queryFactory.selectFrom(member).leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()));
-
-
-        //CountQuery 최적화
-        return PageableExecutionUtils.getPage(content, pageable, () -> countQuery.fetchCount());
-
-//        return new PageImpl<>(content, pageable, total);
-    }
-
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
-    }
-
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
-    }
-
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe == null ? null : member.age.goe(ageGoe);
-    }
+        if (rows.size() <= pageSize)
+            return new MemberCursorPage(rows, null);
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe == null ? null : member.age.loe(ageLoe);
+        List<MemberTeamDto> content = rows.subList(0, pageSize);
+        MemberTeamDto tail = content.get(pageSize - 1);
+        String next = new MemberCursor(key, tail.getMemberId(), key.valueOf(tail)).encode();
+        return new MemberCursorPage(content, next);
     }
 }
@@ -0,0 +1,11 @@
+package study.querydsl.repository;
+
+// MemberRepositoryCustom.search 를 처리하는 방식 (member.search.engine)
+public enum MemberSearchEngine {
+    // 조건 조합별로 미리 만든 JPQL (MemberSearchPlanCache)
+    JPA,
+    // 인메모리 열 지향 인덱스 (MemberColumnarIndex), 스냅샷이 없거나 낡았으면 JPA
+    COLUMNAR,
+    // 같은 SQL 을 JdbcTemplate + MemberTeamDtoRowMapper 로 (Hibernate 결과 처리, Object[] 행 없이)
+    JDBC
+}
@@ -0,0 +1,193 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQuery;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+// MemberSearchCondition 의 null/non-null 조합(16가지)별로 JPQL 을 한 번만 만들어 두고
+// 이후 요청은 파라미터 바인딩만 한다. JPQL 문자열이 항상 같으므로 Hibernate 의 query plan cache 도 그대로 적중한다.
+// 적중/미스 : member.search.plan.cache{result=hit|miss}
+@Component
+public class MemberSearchPlanCache implements MeterBinder {
+    public static final int USERNAME = 1;
+    public static final int TEAM_NAME = 1 << 1;
+    public static final int AGE_GOE = 1 << 2;
+    public static final int AGE_LOE = 1 << 3;
+    public static final int SHAPES = 1 << 4;
+
+    private final EntityManager em;
+    private final AtomicReferenceArray<Plan> plans = new AtomicReferenceArray<>(SHAPES);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public MemberSearchPlanCache(EntityManager em) {
+        this.em = em;
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        int shape = shapeOf(condition);
+        Query query = em.createQuery(planFor(shape).getJpql());
+
+        int position = 1;
+        if ((shape & USERNAME) != 0)
+            query.setParameter(position++, condition.getUsername());
+        if ((shape & TEAM_NAME) != 0)
+            query.setParameter(position++, condition.getTeamName());
+        if ((shape & AGE_GOE) != 0)
+            query.setParameter(position++, condition.getAgeGoe());
+        if ((shape & AGE_LOE) != 0)
+            query.setParameter(position, condition.getAgeLoe());
+
+        List<?> rows = query.getResultList();
+        long mappingStart = System.nanoTime();
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            result.add(new MemberTeamDto((Long) columns[0], (String) columns[1], (Integer) columns[2],
+                    (Long) columns[3], (String) columns[4]));
+        }
+        QueryMetricsContext.mapped(System.nanoTime() - mappingStart);
+        return result;
+    }
+
+    public static int shapeOf(MemberSearchCondition condition) {
+        int shape = 0;
+        if (hasText(condition.getUsername()))
+            shape |= USERNAME;
+        if (hasText(condition.getTeamName()))
+            shape |= TEAM_NAME;
+        if (condition.getAgeGoe() != null)
+            shape |= AGE_GOE;
+        if (condition.getAgeLoe() != null)
+            shape |= AGE_LOE;
+        return shape;
+    }
+
+    // 메트릭 태그, 로그용 이름 (예: "teamName+ageGoe", 조건이 없으면 "all")
+    public static String describe(int shape) {
+        StringBuilder name = new StringBuilder();
+        String[] conditions = {"username", "teamName", "ageGoe", "ageLoe"};
+        for (int bit = 0; bit < conditions.length; bit++) {
+            if ((shape & (1 << bit)) != 0)
+                name.append(name.length() == 0 ? "" : "+").append(conditions[bit]);
+        }
+        return name.length() == 0 ? "all" : name.toString();
+    }
+
+    public Plan planFor(int shape) {
+        Plan plan = plans.get(shape);
+        if (plan != null) {
+            hits.increment();
+            return plan;
+        }
+        misses.increment();
+        // 동시에 컴파일되더라도 결과가 같으므로 먼저 들어간 것을 쓴다
+        plans.compareAndSet(shape, null, compile(shape));
+        return plans.get(shape);
+    }
+
+    // hit/miss 를 세지 않고 캐시에도 넣지 않는다 (IndexAdvisor 처럼 검색 밖에서 JPQL 만 볼 때)
+    public Plan peek(int shape) {
+        Plan plan = plans.get(shape);
+        return plan != null ? plan : compile(shape);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("member.search.plan.cache", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("member search JPQL plan cache lookups")
+                .register(registry);
+        FunctionCounter.builder("member.search.plan.cache", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("member search JPQL plan cache lookups")
+                .register(registry);
+    }
+
+    // 상수 대신 Param 으로 조건을 만들어서 값이 빠진 JPQL(?1, ?2 ...) 을 얻는다
+    // 파라미터 순서는 username, teamName, ageGoe, ageLoe 중 shape 에 포함된 것 순서
+    private Plan compile(int shape) {
+        List<String> parameters = new ArrayList<>();
+        BooleanBuilder where = new BooleanBuilder();
+        if ((shape & USERNAME) != 0) {
+            where.and(member.username.eq(new Param<>(String.class, "username")));
+            parameters.add("username");
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            where.and(team.name.eq(new Param<>(String.class, "teamName")));
+            parameters.add("teamName");
+        }
+        if ((shape & AGE_GOE) != 0) {
+            where.and(member.age.goe(new Param<>(Integer.class, "ageGoe")));
+            parameters.add("ageGoe");
+        }
+        if ((shape & AGE_LOE) != 0) {
+            where.and(member.age.loe(new Param<>(Integer.class, "ageLoe")));
+            parameters.add("ageLoe");
+        }
+
+        String jpql = new JPAQuery<>(em).select(new QMemberTeamDto(
+                                member.id.as("memberId"),
+                                member.username,
+                                member.age,
+                                team.id.as("teamId"),
+                                team.name.as("teamName")
+                        )
+                ).from(member).leftJoin(member.team, team)
+                .where(where)
+                .toString();
+        return new Plan(shape, jpql, parameters);
+    }
+
+    public static class Plan {
+        private final int shape;
+        private final String jpql;
+        private final List<String> parameters;
+
+        Plan(int shape, String jpql, List<String> parameters) {
+            this.shape = shape;
+            this.jpql = jpql;
+            this.parameters = Collections.unmodifiableList(parameters);
+        }
+
+        public int getShape() {
+            return shape;
+        }
+
+        public String getJpql() {
+            return jpql;
+        }
+
+        // 바인딩 순서대로의 파라미터 이름 (?1 부터)
+        public List<String> getParameters() {
+            return parameters;
+        }
+    }
+}
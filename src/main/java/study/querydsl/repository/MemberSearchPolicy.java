@@ -0,0 +1,205 @@
+package study.querydsl.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// searchSimple/searchComplex 로 들어오는 Pageable 검사
+//  - 페이지 크기는 max-page-size 로 줄인다
+//  - 정렬은 MemberSortKey(인덱스가 있는 컬럼) 하나만 허용하고 나머지는 InvalidSearchRequestException (컨트롤러에서 400)
+//    정렬이 없으면 id 순 (offset 페이징이 매번 같은 순서가 되도록)
+//  - keyset-offset 이상의 깊은 offset 은 이전에 읽은 페이지의 경계(마지막 행의 정렬 값, id)를 찾아서 키셋 조건으로 바꾼다
+//    경계는 (조건, 정렬)별로 offset -> 커서 로 기억하고 요청 offset 이하에서 가장 가까운 경계부터 남은 만큼만 offset 으로 건너뛴다
+//    Hibernate 를 거친 변경(MemberDataChangedEvent)이면 경계를 모두 버린다. 다른 경로의 변경(외부 애플리케이션, 직접 실행한 SQL)이나
+//    replica 지연으로 낡은 값을 읽고 기록한 경계는 알 수 없으므로 boundary-cache.ttl 이 지나면 버린다
+//    (낡은 경계로 찾은 페이지는 그 사이 앞쪽에 추가/삭제된 행 수만큼 밀리거나 당겨진다)
+// 결과 : member.search.policy{action=size-clamped|sort-rejected|keyset-seek|deep-offset}
+@Component
+public class MemberSearchPolicy {
+    private final int maxPageSize;
+    private final long keysetOffset;
+    private final int maxBoundariesPerQuery;
+    private final long boundaryTtlNanos;
+    private final LinkedHashMap<BoundaryGroup, TreeMap<Long, Boundary>> boundaries;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter sizeClamped;
+    private final Counter sortRejected;
+    private final Counter keysetSeek;
+    private final Counter deepOffset;
+
+    public MemberSearchPolicy(@Value("${member.search.policy.max-page-size:100}") int maxPageSize,
+                              @Value("${member.search.policy.keyset-offset:1000}") long keysetOffset,
+                              @Value("${member.search.policy.boundary-cache.max-queries:1000}") int maxQueries,
+                              @Value("${member.search.policy.boundary-cache.max-boundaries:64}") int maxBoundariesPerQuery,
+                              @Value("${member.search.policy.boundary-cache.ttl:5m}") Duration boundaryTtl,
+                              MeterRegistry registry) {
+        this.maxPageSize = maxPageSize;
+        this.keysetOffset = keysetOffset;
+        this.maxBoundariesPerQuery = maxBoundariesPerQuery;
+        this.boundaryTtlNanos = boundaryTtl.toNanos();
+        this.boundaries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BoundaryGroup, TreeMap<Long, Boundary>> eldest) {
+                return size() > maxQueries;
+            }
+        };
+        this.sizeClamped = counter(registry, "size-clamped");
+        this.sortRejected = counter(registry, "sort-rejected");
+        this.keysetSeek = counter(registry, "keyset-seek");
+        this.deepOffset = counter(registry, "deep-offset");
+    }
+
+    public MemberPageQuery resolve(MemberSearchCondition condition, Pageable pageable) {
+        int size = pageSize(pageable.isPaged() ? pageable.getPageSize() : maxPageSize);
+        int page = pageable.isPaged() ? pageable.getPageNumber() : 0;
+        Sort.Order order = sortOrder(pageable.getSort());
+        MemberSortKey sortKey = sortKey(order);
+        boolean descending = order.isDescending();
+
+        Pageable resolved = PageRequest.of(page, size, Sort.by(order.getDirection(), sortKey.getProperty()));
+        BoundaryGroup group = new BoundaryGroup(condition.normalize(), sortKey, descending);
+        long loadedAt = generation.get();
+        long offset = resolved.getOffset();
+        if (offset < keysetOffset || inWriteTransaction())
+            return new MemberPageQuery(resolved, sortKey, descending, offset, null, group, loadedAt);
+
+        Map.Entry<Long, Boundary> boundary = floorBoundary(group, offset);
+        if (boundary == null) {
+            deepOffset.increment();
+            return new MemberPageQuery(resolved, sortKey, descending, offset, null, group, loadedAt);
+        }
+        keysetSeek.increment();
+        return new MemberPageQuery(resolved, sortKey, descending, offset, null, group, loadedAt)
+                .seekFrom(boundary.getValue().cursor, offset - boundary.getKey());
+    }
+
+    public int getMaxPageSize() {
+        return maxPageSize;
+    }
+
+    public int pageSize(int requested) {
+        if (requested <= maxPageSize)
+            return requested;
+        sizeClamped.increment();
+        return maxPageSize;
+    }
+
+    // 꽉 찬 페이지를 읽었으면 다음 페이지 시작 위치의 경계를 기억한다
+    public void recordBoundary(MemberPageQuery query, List<MemberTeamDto> content) {
+        int size = query.getPageable().getPageSize();
+        long next = query.getPageable().getOffset() + size;
+        if (content.size() < size || next < keysetOffset || inWriteTransaction())
+            return;
+
+        MemberTeamDto tail = content.get(content.size() - 1);
+        if (tail.getMemberId() == null)
+            return;
+        // username 처럼 null 인 정렬 값도 키셋 조건이 처리한다 (MemberSortKey)
+        MemberCursor cursor = new MemberCursor(query.getSortKey(), tail.getMemberId(), query.getSortKey().valueOf(tail));
+        synchronized (boundaries) {
+            // 조회하는 동안 데이터가 바뀌었다면 경계가 이미 어긋났을 수 있다
+            if (generation.get() != query.generation)
+                return;
+            TreeMap<Long, Boundary> offsets = boundaries.computeIfAbsent(query.group, group -> new TreeMap<>());
+            offsets.put(next, new Boundary(cursor, System.nanoTime()));
+            // 얕은 경계부터 버린다 (가까운 경계가 없어도 offset 으로 건너뛰는 비용이 작다)
+            if (offsets.size() > maxBoundariesPerQuery)
+                offsets.pollFirstEntry();
+        }
+    }
+
+    @EventListener
+    public void onMemberDataChanged(MemberDataChangedEvent event) {
+        synchronized (boundaries) {
+            generation.incrementAndGet();
+            boundaries.clear();
+        }
+    }
+
+    // ttl 이 지난 경계는 버리고 그 아래 경계를 찾는다
+    private Map.Entry<Long, Boundary> floorBoundary(BoundaryGroup group, long offset) {
+        synchronized (boundaries) {
+            TreeMap<Long, Boundary> offsets = boundaries.get(group);
+            if (offsets == null)
+                return null;
+            long now = System.nanoTime();
+            Map.Entry<Long, Boundary> floor = offsets.floorEntry(offset);
+            while (floor != null && now - floor.getValue().recordedAt >= boundaryTtlNanos) {
+                offsets.remove(floor.getKey());
+                floor = offsets.floorEntry(offset);
+            }
+            return floor;
+        }
+    }
+
+    private Sort.Order sortOrder(Sort sort) {
+        Iterator<Sort.Order> orders = sort.iterator();
+        if (!orders.hasNext())
+            return Sort.Order.asc(MemberSortKey.ID.getProperty());
+
+        Sort.Order order = orders.next();
+        if (orders.hasNext()) {
+            sortRejected.increment();
+            throw new InvalidSearchRequestException("정렬은 하나만 지정할 수 있습니다: " + sort);
+        }
+        return order;
+    }
+
+    private MemberSortKey sortKey(Sort.Order order) {
+        try {
+            return MemberSortKey.from(order.getProperty());
+        } catch (InvalidSearchRequestException e) {
+            sortRejected.increment();
+            throw e;
+        }
+    }
+
+    private static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static Counter counter(MeterRegistry registry, String action) {
+        return Counter.builder("member.search.policy")
+                .tag("action", action)
+                .register(registry);
+    }
+
+    private static class Boundary {
+        private final MemberCursor cursor;
+        private final long recordedAt;
+
+        Boundary(MemberCursor cursor, long recordedAt) {
+            this.cursor = cursor;
+            this.recordedAt = recordedAt;
+        }
+    }
+
+    // 같은 경계를 공유하는 (조건, 정렬) 묶음
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    static class BoundaryGroup {
+        private final MemberSearchCondition condition;
+        private final MemberSortKey sortKey;
+        private final boolean descending;
+    }
+}
@@ -0,0 +1,85 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.MappingTimedProjection.timed;
+
+// 회원 검색 페이지/카운트 쿼리 (MemberRepositoryImpl 이 실행하고 IndexAdvisor 는 같은 쿼리의 실행 계획을 본다)
+@Component
+@RequiredArgsConstructor
+public class MemberSearchQueries {
+    private final JPAQueryFactory queryFactory;
+    private final TeamIdResolver teamIdResolver;
+
+    // MemberSearchPolicy 가 정한 정렬, offset, 키셋 조건으로 한 페이지
+    public JPAQuery<MemberTeamDto> pageContent(MemberSearchCondition condition, MemberPageQuery page) {
+        return queryFactory.select(timed(new QMemberTeamDto(
+                                member.id.as("memberId"),
+                                member.username,
+                                member.age,
+                                team.id.as("teamId"),
+                                team.name.as("teamName")
+                        ))
+                ).from(member).leftJoin(member.team, team)
+                .where(where(condition, page.getSeek()))
+                .orderBy(page.getOrderSpecifiers())
+                .offset(page.getOffset())
+                .limit(page.getPageable().getPageSize());
+    }
+
+    // 카운트 쿼리는 projection 이 필요 없으므로 team.name 조건이 있을 때만 조인한다
+    // (team.name 조건이 걸리면 left join 은 inner join 과 같다)
+    // 팀 id 로 변환할 수 있으면 member.team.id 조건만으로 충분하므로 조인하지 않는다
+    public JPAQuery<Long> countQuery(MemberSearchCondition condition) {
+        JPAQuery<Long> query = queryFactory.select(member.count()).from(member);
+        if (hasText(condition.getTeamName()) && !teamIdResolver.isEnabled())
+            query.join(member.team, team);
+        return query.where(where(condition, null));
+    }
+
+    // 검색 조건 + 키셋 조건 (없는 조건은 null 이므로 where 에서 무시된다)
+    BooleanExpression[] where(MemberSearchCondition condition, BooleanExpression seek) {
+        return new BooleanExpression[]{
+                usernameEq(condition.getUsername()),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe()),
+                seek
+        };
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        if (!hasText(teamName))
+            return null;
+        if (!teamIdResolver.isEnabled())
+            return team.name.eq(teamName);
+
+        List<Long> teamIds = teamIdResolver.resolve(teamName);
+        // 없는 팀이면 결과가 없어야 한다
+        return teamIds.isEmpty() ? member.id.isNull() : member.team.id.in(teamIds);
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe == null ? null : member.age.goe(ageGoe);
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe == null ? null : member.age.loe(ageLoe);
+    }
+}
@@ -0,0 +1,293 @@
+package study.querydsl.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// search(condition) 결과 캐시 (키 : 정규화된 MemberSearchCondition)
+//  - heap 티어 : 추정 바이트 크기 기준 LRU
+//    MemberTeamDto 는 변경 가능하므로 불변 행(Row)으로 보관하고 꺼낼 때마다 새 DTO 를 만든다
+//    (호출한 쪽이 결과를 고쳐도 다른 요청의 결과가 바뀌지 않도록)
+//  - off-heap 티어 : threshold-rows 이상인 큰 결과를 direct ByteBuffer 에 직렬화해서 보관 (선택)
+// Member/Team 이 바뀌면(MemberDataChangedEvent) 전부 무효화한다
+// 이벤트로 알 수 없는 변경(다른 인스턴스, replica 지연으로 낡은 값을 읽은 결과)은 ttl 이 지나면 버린다
+// 검색 엔진(MemberColumnarIndex)이 변경을 반영한 뒤에 비워야 하므로 이벤트는 가장 나중에 받는다
+// 쓰기 트랜잭션 안에서는 아직 커밋되지 않은 변경이 보여야 하므로 캐시를 거치지 않는다
+@Component
+public class MemberSearchResultCache {
+    private static final long NULL_ID = Long.MIN_VALUE;
+
+    private final boolean enabled;
+    private final SizedLru<List<Row>> heap;
+    private final SizedLru<ByteBuffer> offHeap;
+    private final int offHeapThresholdRows;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder heapHits = new LongAdder();
+    private final LongAdder offHeapHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public MemberSearchResultCache(@Value("${member.result-cache.enabled:true}") boolean enabled,
+                                   @Value("${member.result-cache.ttl:1m}") Duration ttl,
+                                   @Value("${member.result-cache.heap-max-bytes:16777216}") long heapMaxBytes,
+                                   @Value("${member.result-cache.off-heap.enabled:false}") boolean offHeapEnabled,
+                                   @Value("${member.result-cache.off-heap.max-bytes:268435456}") long offHeapMaxBytes,
+                                   @Value("${member.result-cache.off-heap.threshold-rows:1000}") int offHeapThresholdRows) {
+        this.enabled = enabled;
+        this.heap = new SizedLru<>(heapMaxBytes, ttl.toNanos());
+        this.offHeap = offHeapEnabled ? new SizedLru<>(offHeapMaxBytes, ttl.toNanos()) : null;
+        this.offHeapThresholdRows = offHeapThresholdRows;
+    }
+
+    public List<MemberTeamDto> get(MemberSearchCondition condition, Supplier<List<MemberTeamDto>> loader) {
+        if (!enabled || inWriteTransaction())
+            return loader.get();
+
+        MemberSearchCondition key = condition.normalize();
+        List<Row> cached = heap.get(key);
+        if (cached != null) {
+            heapHits.increment();
+            return toDtos(cached);
+        }
+        if (offHeap != null) {
+            ByteBuffer buffer = offHeap.get(key);
+            if (buffer != null) {
+                offHeapHits.increment();
+                return decode(buffer);
+            }
+        }
+
+        misses.increment();
+        long loadedAt = generation.get();
+        List<MemberTeamDto> result = Collections.unmodifiableList(loader.get());
+        // 조회하는 동안 무효화되었다면 이미 낡은 결과일 수 있으므로 넣지 않는다
+        if (generation.get() == loadedAt)
+            put(key, result);
+        return result;
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener
+    public void onMemberDataChanged(MemberDataChangedEvent event) {
+        invalidateAll();
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        heap.clear();
+        if (offHeap != null)
+            offHeap.clear();
+    }
+
+    public long heapHitCount() {
+        return heapHits.sum();
+    }
+
+    public long offHeapHitCount() {
+        return offHeapHits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    private void put(MemberSearchCondition key, List<MemberTeamDto> result) {
+        if (offHeap != null && result.size() >= offHeapThresholdRows) {
+            ByteBuffer buffer = encode(result);
+            offHeap.put(key, buffer, buffer.capacity());
+        } else {
+            heap.put(key, toRows(result), estimateHeapBytes(result));
+        }
+    }
+
+    private static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static List<Row> toRows(List<MemberTeamDto> rows) {
+        List<Row> result = new ArrayList<>(rows.size());
+        for (MemberTeamDto row : rows)
+            result.add(new Row(row));
+        return Collections.unmodifiableList(result);
+    }
+
+    private static List<MemberTeamDto> toDtos(List<Row> rows) {
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Row row : rows)
+            result.add(row.toDto());
+        return Collections.unmodifiableList(result);
+    }
+
+    // 객체 헤더, 참조, String 내부 배열을 대략 반영한 추정치
+    private static long estimateHeapBytes(List<MemberTeamDto> rows) {
+        long bytes = 64;
+        for (MemberTeamDto row : rows)
+            bytes += 120 + length(row.getUsername()) + length(row.getTeamName());
+        return bytes;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    // 행 : memberId(long) username(len + utf8) age(int) teamId(long) teamName(len + utf8)
+    private static ByteBuffer encode(List<MemberTeamDto> rows) {
+        List<byte[]> strings = new ArrayList<>(rows.size() * 2);
+        int size = Integer.BYTES;
+        for (MemberTeamDto row : rows) {
+            byte[] username = bytes(row.getUsername());
+            byte[] teamName = bytes(row.getTeamName());
+            strings.add(username);
+            strings.add(teamName);
+            size += Long.BYTES * 2 + Integer.BYTES * 3
+                    + (username == null ? 0 : username.length)
+                    + (teamName == null ? 0 : teamName.length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        buffer.putInt(rows.size());
+        Iterator<byte[]> values = strings.iterator();
+        for (MemberTeamDto row : rows) {
+            buffer.putLong(row.getMemberId() == null ? NULL_ID : row.getMemberId());
+            putString(buffer, values.next());
+            buffer.putInt(row.getAge());
+            buffer.putLong(row.getTeamId() == null ? NULL_ID : row.getTeamId());
+            putString(buffer, values.next());
+        }
+        buffer.flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    private static List<MemberTeamDto> decode(ByteBuffer source) {
+        ByteBuffer buffer = source.duplicate();
+        int count = buffer.getInt();
+        List<MemberTeamDto> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long memberId = buffer.getLong();
+            String username = getString(buffer);
+            int age = buffer.getInt();
+            long teamId = buffer.getLong();
+            String teamName = getString(buffer);
+            rows.add(new MemberTeamDto(memberId == NULL_ID ? null : memberId, username, age,
+                    teamId == NULL_ID ? null : teamId, teamName));
+        }
+        return Collections.unmodifiableList(rows);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(value.length);
+        buffer.put(value);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0)
+            return null;
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    // heap 티어에 보관하는 MemberTeamDto 의 불변 사본
+    private static final class Row {
+        private final Long memberId;
+        private final String username;
+        private final int age;
+        private final Long teamId;
+        private final String teamName;
+
+        Row(MemberTeamDto dto) {
+            this.memberId = dto.getMemberId();
+            this.username = dto.getUsername();
+            this.age = dto.getAge();
+            this.teamId = dto.getTeamId();
+            this.teamName = dto.getTeamName();
+        }
+
+        MemberTeamDto toDto() {
+            return new MemberTeamDto(memberId, username, age, teamId, teamName);
+        }
+    }
+
+    // 항목 크기의 합이 maxBytes 를 넘지 않도록 가장 오래 쓰지 않은 항목부터 버리는 LRU (ttlNanos 가 지난 항목은 꺼낼 때 버린다)
+    private static class SizedLru<V> {
+        private final long maxBytes;
+        private final long ttlNanos;
+        private final LinkedHashMap<MemberSearchCondition, Sized<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        SizedLru(long maxBytes, long ttlNanos) {
+            this.maxBytes = maxBytes;
+            this.ttlNanos = ttlNanos;
+        }
+
+        synchronized V get(MemberSearchCondition key) {
+            Sized<V> entry = entries.get(key);
+            if (entry == null)
+                return null;
+            if (System.nanoTime() - entry.storedAt >= ttlNanos) {
+                entries.remove(key);
+                bytes -= entry.size;
+                return null;
+            }
+            return entry.value;
+        }
+
+        synchronized void put(MemberSearchCondition key, V value, long size) {
+            if (size > maxBytes)
+                return;
+            Sized<V> previous = entries.put(key, new Sized<>(value, size));
+            bytes += size - (previous == null ? 0 : previous.size);
+
+            Iterator<Map.Entry<MemberSearchCondition, Sized<V>>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().getValue().size;
+                eldest.remove();
+            }
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    private static class Sized<V> {
+        private final V value;
+        private final long size;
+        private final long storedAt;
+
+        Sized(V value, long size) {
+            this.value = value;
+            this.size = size;
+            this.storedAt = System.nanoTime();
+        }
+    }
+}
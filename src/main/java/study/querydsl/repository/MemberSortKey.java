@@ -0,0 +1,161 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.Arrays;
+
+import static study.querydsl.entity.QMember.member;
+
+// 키셋(seek) 페이징에 사용할 수 있는 정렬 키 (모두 인덱스가 있는 컬럼, MemberSearchPolicy 의 정렬 허용 목록)
+// 항상 member.id 를 보조 정렬로 붙여서 (정렬 키, id) 튜플이 유일하도록 한다.
+// null 이 가능한 username 은 DB(H2) 기본값처럼 null 을 가장 작은 값으로 본다 (오름차순 NULLS FIRST, 내림차순 NULLS LAST).
+// 인덱스 순서와 같으므로 키셋 조건이 인덱스 범위 하나가 되고, null 행도 빠뜨리지 않는다.
+public enum MemberSortKey {
+    ID("id", false) {
+        @Override
+        public OrderSpecifier<?>[] orderSpecifiers() {
+            return new OrderSpecifier[]{member.id.asc()};
+        }
+
+        @Override
+        public BooleanExpression after(String value, Long id) {
+            return member.id.gt(id);
+        }
+
+        @Override
+        public BooleanExpression before(String value, Long id) {
+            return member.id.lt(id);
+        }
+
+        @Override
+        public String valueOf(MemberTeamDto row) {
+            return String.valueOf(row.getMemberId());
+        }
+
+        @Override
+        void validate(String value) {
+            Long.parseLong(value);
+        }
+    },
+    AGE("age", false) {
+        @Override
+        public OrderSpecifier<?>[] orderSpecifiers() {
+            return new OrderSpecifier[]{member.age.asc(), member.id.asc()};
+        }
+
+        @Override
+        public BooleanExpression after(String value, Long id) {
+            int age = Integer.parseInt(value);
+            return member.age.gt(age).or(member.age.eq(age).and(member.id.gt(id)));
+        }
+
+        @Override
+        public BooleanExpression before(String value, Long id) {
+            int age = Integer.parseInt(value);
+            return member.age.lt(age).or(member.age.eq(age).and(member.id.lt(id)));
+        }
+
+        @Override
+        public String valueOf(MemberTeamDto row) {
+            return String.valueOf(row.getAge());
+        }
+
+        @Override
+        void validate(String value) {
+            Integer.parseInt(value);
+        }
+    },
+    USERNAME("username", true) {
+        @Override
+        public OrderSpecifier<?>[] orderSpecifiers() {
+            return new OrderSpecifier[]{member.username.asc().nullsFirst(), member.id.asc()};
+        }
+
+        // null 뒤에는 id 가 큰 null 행과 null 이 아닌 행 전부, null 이 아닌 값 뒤에는 null 행이 없다
+        @Override
+        public BooleanExpression after(String value, Long id) {
+            if (value == null)
+                return member.username.isNull().and(member.id.gt(id)).or(member.username.isNotNull());
+            return member.username.gt(value).or(member.username.eq(value).and(member.id.gt(id)));
+        }
+
+        // 내림차순은 null 이 맨 뒤 : null 이 아닌 값 뒤에는 null 행 전부, null 뒤에는 id 가 작은 null 행만
+        @Override
+        public BooleanExpression before(String value, Long id) {
+            if (value == null)
+                return member.username.isNull().and(member.id.lt(id));
+            return member.username.lt(value)
+                    .or(member.username.eq(value).and(member.id.lt(id)))
+                    .or(member.username.isNull());
+        }
+
+        @Override
+        public String valueOf(MemberTeamDto row) {
+            return row.getUsername();
+        }
+    };
+
+    private final String property;
+    private final boolean nullable;
+
+    MemberSortKey(String property, boolean nullable) {
+        this.property = property;
+        this.nullable = nullable;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    // 정렬 값(valueOf)이 null 일 수 있는지
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    public abstract OrderSpecifier<?>[] orderSpecifiers();
+
+    // 보조 정렬(id)까지 모두 내림차순, null 위치도 뒤집는다
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public OrderSpecifier<?>[] orderSpecifiers(boolean descending) {
+        OrderSpecifier<?>[] ascending = orderSpecifiers();
+        if (!descending)
+            return ascending;
+        OrderSpecifier<?>[] result = new OrderSpecifier[ascending.length];
+        for (int i = 0; i < ascending.length; i++)
+            result[i] = new OrderSpecifier(Order.DESC, ascending[i].getTarget(), reversed(ascending[i].getNullHandling()));
+        return result;
+    }
+
+    private static OrderSpecifier.NullHandling reversed(OrderSpecifier.NullHandling nullHandling) {
+        switch (nullHandling) {
+            case NullsFirst:
+                return OrderSpecifier.NullHandling.NullsLast;
+            case NullsLast:
+                return OrderSpecifier.NullHandling.NullsFirst;
+            default:
+                return nullHandling;
+        }
+    }
+
+    // 마지막으로 읽은 (value, id) 이후의 행만 남기는 조건 (value 는 null 일 수 있다)
+    public abstract BooleanExpression after(String value, Long id);
+
+    // 내림차순일 때의 after
+    public abstract BooleanExpression before(String value, Long id);
+
+    public abstract String valueOf(MemberTeamDto row);
+
+    // 커서에서 읽은 정렬 값이 after/before 에서 쓸 수 있는 형식인지 (아니면 IllegalArgumentException)
+    void validate(String value) {
+    }
+
+    public static MemberSortKey from(String property) {
+        return Arrays.stream(values())
+                .filter(key -> key.property.equalsIgnoreCase(property))
+                .findFirst()
+                .orElseThrow(() -> new InvalidSearchRequestException("정렬할 수 없는 속성입니다: " + property));
+    }
+}
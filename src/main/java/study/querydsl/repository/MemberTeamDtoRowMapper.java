@@ -0,0 +1,28 @@
+package study.querydsl.repository;
+
+import org.springframework.jdbc.core.RowMapper;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// search 조회 SQL 의 select 순서(member id, username, age, team id, team name)에 맞춘 매퍼
+// 컬럼을 위치로 바로 읽어서 생성자에 넘긴다 (Object[] 행, 리플렉션 없음)
+// id 는 getLong + wasNull 로 읽어서 null 이 아닐 때만 박싱한다
+final class MemberTeamDtoRowMapper implements RowMapper<MemberTeamDto> {
+    static final MemberTeamDtoRowMapper INSTANCE = new MemberTeamDtoRowMapper();
+
+    private MemberTeamDtoRowMapper() {
+    }
+
+    @Override
+    public MemberTeamDto mapRow(ResultSet rs, int rowNum) throws SQLException {
+        long memberId = rs.getLong(1);
+        Long boxedMemberId = rs.wasNull() ? null : memberId;
+        String username = rs.getString(2);
+        int age = rs.getInt(3);
+        long teamId = rs.getLong(4);
+        Long boxedTeamId = rs.wasNull() ? null : teamId;
+        return new MemberTeamDto(boxedMemberId, username, age, boxedTeamId, rs.getString(5));
+    }
+}
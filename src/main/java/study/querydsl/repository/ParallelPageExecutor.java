@@ -0,0 +1,151 @@
+package study.querydsl.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// 카운트 쿼리를 다른 스레드(= 다른 커넥션, 다른 읽기 전용 트랜잭션)에서 실행하는 동안
+// 컨텐츠 쿼리는 호출한 스레드가 이미 가진 트랜잭션/커넥션으로 실행하고, 둘 다 끝나면 Page 를 조립한다.
+// 응답 시간이 두 쿼리의 합이 아니라 느린 쪽에 가까워진다.
+// 요청 하나가 커넥션을 최대 두 개 쓰므로 풀 고갈(요청 스레드끼리 서로의 커넥션을 기다리는 상황)을 막기 위해
+//  - 카운트 스레드 수는 커넥션 풀 최대 크기의 절반 미만으로 제한하고
+//  - 풀에 쉬는 커넥션이 없거나 작업 큐가 가득 차면 호출한 스레드에서 순차 실행한다
+// 라우팅(DataSourceRoutingConfig)을 쓰면 읽기 전용인 두 쿼리는 replica 풀에서, 지연이 크면 primary 풀에서 커넥션을 얻으므로
+// 어느 풀인지 미리 알 수 없다 : 스레드 수는 가장 작은 풀에 맞추고 모든 풀에 쉬는 커넥션이 있을 때만 병렬로
+// member.search.parallel.enabled=true 일 때만 사용 (기본은 기존처럼 순차 실행)
+@Slf4j
+@Component
+public class ParallelPageExecutor implements DisposableBean {
+    private final boolean enabled;
+    private final long timeoutNanos;
+    private final ThreadPoolExecutor executor;
+    private final TransactionTemplate readOnlyTx;
+    private final List<HikariDataSource> pools;
+
+    public ParallelPageExecutor(PlatformTransactionManager transactionManager,
+                                ObjectProvider<DataSource> dataSources,
+                                @Value("${member.search.parallel.enabled:false}") boolean enabled,
+                                @Value("${member.search.parallel.pool-size:8}") int poolSize,
+                                @Value("${member.search.parallel.queue-capacity:64}") int queueCapacity,
+                                @Value("${member.search.parallel.timeout:3s}") Duration timeout) {
+        this.enabled = enabled;
+        this.timeoutNanos = timeout.toNanos();
+        // 라우팅 DataSource 를 unwrap 하면 primary 풀이 나오므로 같은 풀은 한 번만
+        this.pools = dataSources.orderedStream()
+                .map(ParallelPageExecutor::hikari)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        int threads = poolSize;
+        for (HikariDataSource pool : pools)
+            threads = Math.min(threads, Math.max(1, (pool.getMaximumPoolSize() - 1) / 2));
+        // 풀이 가득 차면 거절하고 호출한 스레드에서 순차 실행으로 되돌아간다
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("member-search-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // 트랜잭션 타임아웃은 JPA 쿼리 타임아웃으로도 적용되어 DB 쪽 실행도 끊긴다
+        this.readOnlyTx.setTimeout((int) Math.max(1, timeout.getSeconds()));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    int threads() {
+        return executor.getCorePoolSize();
+    }
+
+    public <T> Page<T> getPage(Pageable pageable, Supplier<List<T>> content, LongSupplier total) {
+        Future<Long> totalFuture = submitCount(total);
+        if (totalFuture == null)
+            return PageableExecutionUtils.getPage(content.get(), pageable, total);
+
+        long deadline = System.nanoTime() + timeoutNanos;
+        try {
+            List<T> rows = content.get();
+            Page<T> page = PageableExecutionUtils.getPage(rows, pageable, () -> await(totalFuture, deadline));
+            // 첫/마지막 페이지처럼 카운트가 필요 없었으면 실행 중인 카운트 쿼리를 취소
+            totalFuture.cancel(true);
+            return page;
+        } catch (RuntimeException e) {
+            totalFuture.cancel(true);
+            throw e;
+        }
+    }
+
+    private Future<Long> submitCount(LongSupplier total) {
+        if (!hasIdleConnection())
+            return null;
+        try {
+            return executor.submit(() -> readOnlyTx.execute(status -> total.getAsLong()));
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private boolean hasIdleConnection() {
+        for (HikariDataSource hikari : pools) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool != null && pool.getIdleConnections() == 0)
+                return false;
+        }
+        return true;
+    }
+
+    private static HikariDataSource hikari(DataSource dataSource) {
+        if (dataSource == null)
+            return null;
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            log.debug("connection pool is not HikariCP, parallel count is not bounded by pool size", e);
+            return null;
+        }
+    }
+
+    private static <V> V await(Future<V> future, long deadline) {
+        try {
+            return future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("페이지 조회 시간이 초과되었습니다.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("페이지 조회가 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
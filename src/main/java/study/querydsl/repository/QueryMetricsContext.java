@@ -0,0 +1,49 @@
+package study.querydsl.repository;
+
+// 리포지토리 메서드 한 번의 호출 동안 실행된 JDBC 문장 수와 DTO 매핑 시간을 스레드 단위로 모은다
+// 값은 RepositoryMetricsAspect 가 열고 닫는 Scope 안에서만 기록된다
+public final class QueryMetricsContext {
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryMetricsContext() {
+    }
+
+    // 이미 열린 Scope 가 있으면(중첩 호출) null 을 돌려주고 바깥 Scope 에 합산한다
+    public static Scope open() {
+        if (CURRENT.get() != null)
+            return null;
+        Scope scope = new Scope();
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static void statementExecuted() {
+        Scope scope = CURRENT.get();
+        if (scope != null)
+            scope.statements++;
+    }
+
+    public static void mapped(long nanos) {
+        Scope scope = CURRENT.get();
+        if (scope != null)
+            scope.mappingNanos += nanos;
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private int statements;
+        private long mappingNanos;
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getMappingNanos() {
+            return mappingNanos;
+        }
+
+        @Override
+        public void close() {
+            CURRENT.remove();
+        }
+    }
+}
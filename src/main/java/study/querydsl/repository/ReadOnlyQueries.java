@@ -0,0 +1,19 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.AbstractJPAQuery;
+import org.hibernate.jpa.QueryHints;
+
+import javax.persistence.FlushModeType;
+
+// 조회 전용 JPAQuery : 엔티티를 읽기 전용으로 로딩해서 Hibernate 가 dirty checking 용 스냅샷을 만들지 않고,
+// 쿼리 전에 영속성 컨텍스트를 flush 하지 않는다
+public final class ReadOnlyQueries {
+
+    private ReadOnlyQueries() {
+    }
+
+    public static <T, Q extends AbstractJPAQuery<T, Q>> Q readOnly(Q query) {
+        return query.setHint(QueryHints.HINT_READONLY, true)
+                .setFlushMode(FlushModeType.COMMIT);
+    }
+}
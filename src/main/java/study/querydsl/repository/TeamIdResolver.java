@@ -0,0 +1,40 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static study.querydsl.entity.QTeam.team;
+
+// 팀 이름 -> 팀 id 변환 결과를 Hibernate 쿼리 캐시에 올려 두고,
+// 팀 조건 검색을 team.name 조인 조건 대신 member.team.id 조건으로 바꿀 수 있게 한다
+// Team 테이블이 Hibernate 를 통해 변경되면 쿼리 캐시는 자동으로 무효화된다
+@Component
+public class TeamIdResolver {
+    public static final String REGION = "team-name-to-id";
+
+    private final JPAQueryFactory queryFactory;
+    private final boolean enabled;
+
+    public TeamIdResolver(JPAQueryFactory queryFactory,
+                          @Value("${spring.jpa.properties.hibernate.cache.use_query_cache:false}") boolean enabled) {
+        this.queryFactory = queryFactory;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<Long> resolve(String teamName) {
+        return queryFactory.select(team.id)
+                .from(team)
+                .where(team.name.eq(teamName))
+                .setHint(QueryHints.HINT_CACHEABLE, true)
+                .setHint(QueryHints.HINT_CACHE_REGION, REGION)
+                .fetch();
+    }
+}
@@ -0,0 +1,9 @@
+package study.querydsl.repository;
+
+import study.querydsl.dto.TeamMembersDto;
+
+import java.util.List;
+
+public interface TeamRepositoryCustom {
+    List<TeamMembersDto> findTeamsWithTopMembers(int topN);
+}
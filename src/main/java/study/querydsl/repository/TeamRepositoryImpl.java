@@ -0,0 +1,75 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.annotation.Value;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.TeamMembersDto;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManager em;
+    private final int batchSize;
+
+    public TeamRepositoryImpl(JPAQueryFactory queryFactory, EntityManager em,
+                              @Value("${spring.jpa.properties.hibernate.default_batch_fetch_size:100}") int batchSize) {
+        this.queryFactory = queryFactory;
+        this.em = em;
+        this.batchSize = batchSize;
+    }
+
+    // 팀별 회원 수와 나이가 많은 순 상위 topN 명
+    // 팀 목록 1번 + 팀 id 를 batchSize 개씩 IN 절로 묶어서 (팀 수 / batchSize)번만 조회한다
+    @Override
+    public List<TeamMembersDto> findTeamsWithTopMembers(int topN) {
+        List<Tuple> counts = queryFactory.select(team.id, team.name, member.count())
+                .from(team).leftJoin(team.members, member)
+                .groupBy(team.id, team.name)
+                .orderBy(team.id.asc())
+                .fetch();
+
+        Map<Long, TeamMembersDto> teams = new LinkedHashMap<>();
+        for (Tuple row : counts) {
+            Long teamId = row.get(team.id);
+            teams.put(teamId, new TeamMembersDto(teamId, row.get(team.name), row.get(member.count())));
+        }
+        if (topN <= 0)
+            return new ArrayList<>(teams.values());
+
+        List<Long> teamIds = new ArrayList<>(teams.keySet());
+        for (int from = 0; from < teamIds.size(); from += batchSize) {
+            List<Long> batch = teamIds.subList(from, Math.min(teamIds.size(), from + batchSize));
+            for (Object[] row : topMembers(batch, topN))
+                teams.get(((Number) row[0]).longValue()).getTopMembers()
+                        .add(new MemberDto((String) row[1], ((Number) row[2]).intValue()));
+        }
+        return new ArrayList<>(teams.values());
+    }
+
+    // 팀별 순위는 윈도우 함수로 한 번에 매긴다 (팀 크기에 비례하는 비용, 상관 서브쿼리처럼 행마다 다시 세지 않는다)
+    // 순위 : 나이가 많은 순, 나이가 같으면 id 순
+    private List<Object[]> topMembers(List<Long> teamIds, int topN) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery(
+                        "select ranked.team_id, ranked.username, ranked.age from (" +
+                        " select m.team_id, m.username, m.age," +
+                        "  row_number() over (partition by m.team_id order by m.age desc, m.member_id) as rn" +
+                        " from member m where m.team_id in (:teamIds)" +
+                        ") ranked where ranked.rn <= :topN" +
+                        " order by ranked.team_id, ranked.rn")
+                .setParameter("teamIds", teamIds)
+                .setParameter("topN", topN)
+                .getResultList();
+        return rows;
+    }
+}
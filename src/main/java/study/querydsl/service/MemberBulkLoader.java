@@ -0,0 +1,71 @@
+package study.querydsl.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.BulkLoadResult;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// 회원 대량 적재 : chunk-size 건마다 새 트랜잭션(REQUIRES_NEW)으로 커밋한다
+//  - 청크마다 별도의 EntityManager 가 바인딩되므로 flush/clear 가 호출한 쪽의 영속성 컨텍스트를 건드리지 않는다
+//  - 실패하면 그 청크만 롤백되고 앞에서 커밋된 청크는 남는다 (몇 건까지 커밋됐는지 로그로 남긴다)
+//  - 청크 안에서는 hibernate.jdbc.batch_size 단위로 flush/clear 해서 insert 를 JDBC batch 로 묶는다
+// 팀은 미리 커밋되어 있어야 하고(청크는 다른 커넥션에서 insert 한다), 회원은 Member.forBulkLoad 로 만드는 것을 권장
+@Slf4j
+@Service
+public class MemberBulkLoader {
+    private final EntityManager em;
+    private final TransactionTemplate chunkTx;
+    private final int batchSize;
+    private final int chunkSize;
+
+    public MemberBulkLoader(EntityManager em, PlatformTransactionManager transactionManager,
+                            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                            @Value("${member.bulk-load.chunk-size:10000}") int chunkSize) {
+        this.em = em;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkLoadResult load(Stream<Member> members) {
+        long start = System.nanoTime();
+        long rows = 0;
+        Iterator<Member> iterator = members.iterator();
+        while (iterator.hasNext()) {
+            try {
+                rows += chunkTx.execute(status -> persistChunk(iterator));
+            } catch (RuntimeException e) {
+                log.error("member bulk load failed : {} rows committed before the failed chunk", rows);
+                throw e;
+            }
+        }
+
+        BulkLoadResult result = new BulkLoadResult(rows, System.nanoTime() - start);
+        log.info("member bulk load : {} rows in {} ms ({} rows/sec)",
+                result.getRows(), result.getElapsedMillis(), result.getRowsPerSecond());
+        return result;
+    }
+
+    private int persistChunk(Iterator<Member> iterator) {
+        int rows = 0;
+        while (rows < chunkSize && iterator.hasNext()) {
+            em.persist(iterator.next());
+            if (++rows % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        return rows;
+    }
+}
@@ -0,0 +1,168 @@
+package study.querydsl.service;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.BulkDmlResult;
+import study.querydsl.dto.BulkJobResult;
+import study.querydsl.entity.BulkJobCheckpoint;
+import study.querydsl.repository.BulkDmlRepository;
+import study.querydsl.repository.BulkJobCheckpointRepository;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static study.querydsl.entity.QMember.member;
+
+// 회원 대량 수정을 id 구간(청크) 단위로 나눠서 청크마다 커밋한다
+//  - 한 트랜잭션이 전체 행의 락과 undo 로그를 잡고 있지 않도록
+//  - 청크의 수정과 체크포인트 갱신을 같은 트랜잭션에서 커밋하므로, 중단된 작업은 같은 jobName 으로 다시 실행하면
+//    마지막으로 커밋된 청크 다음부터 이어서 처리한다 (같은 조건과 set 절로 호출해야 한다)
+//  - 청크 사이에 throttle 만큼 쉬어서 다른 트랜잭션에게 DB 를 양보한다
+// 처리 범위는 처음 실행할 때의 max(id) 까지이고, 메트릭은 member.bulk-job.* (job 태그)
+// 청크마다 새 트랜잭션을 여는 구조이므로 바깥 트랜잭션 없이 호출한다
+@Slf4j
+@Service
+public class MemberBulkUpdateJob {
+    private final JPAQueryFactory queryFactory;
+    private final BulkDmlRepository bulkDmlRepository;
+    private final BulkJobCheckpointRepository checkpointRepository;
+    private final MeterRegistry registry;
+    private final TransactionTemplate chunkTx;
+    private final int defaultChunkSize;
+    private final Duration throttle;
+    private final Map<String, JobMeters> meters = new ConcurrentHashMap<>();
+
+    public MemberBulkUpdateJob(JPAQueryFactory queryFactory,
+                               BulkDmlRepository bulkDmlRepository,
+                               BulkJobCheckpointRepository checkpointRepository,
+                               MeterRegistry registry,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${member.bulk-job.chunk-size:1000}") int defaultChunkSize,
+                               @Value("${member.bulk-job.throttle:50ms}") Duration throttle) {
+        this.queryFactory = queryFactory;
+        this.bulkDmlRepository = bulkDmlRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.registry = registry;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.defaultChunkSize = defaultChunkSize;
+        this.throttle = throttle;
+    }
+
+    public BulkJobResult run(String jobName, Predicate predicate, Consumer<JPAUpdateClause> assignments) {
+        return run(jobName, predicate, assignments, defaultChunkSize);
+    }
+
+    public BulkJobResult run(String jobName, Predicate predicate, Consumer<JPAUpdateClause> assignments, int chunkSize) {
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("chunkSize must be positive : " + chunkSize);
+
+        long start = System.nanoTime();
+        JobMeters jobMeters = meters.computeIfAbsent(jobName, JobMeters::new);
+        BulkJobCheckpoint checkpoint = chunkTx.execute(status -> checkpointRepository.findById(jobName)
+                .orElseGet(() -> checkpointRepository.save(new BulkJobCheckpoint(jobName, maxId()))));
+        jobMeters.lag.set(checkpoint.remainingIds());
+
+        int chunks = 0;
+        long rows = 0;
+        while (!checkpoint.isCompleted()) {
+            long chunkStart = System.nanoTime();
+            long before = checkpoint.getProcessedRows();
+            checkpoint = chunkTx.execute(status -> processChunk(jobName, predicate, assignments, chunkSize));
+            long chunkRows = checkpoint.getProcessedRows() - before;
+            long chunkNanos = System.nanoTime() - chunkStart;
+
+            chunks++;
+            rows += chunkRows;
+            jobMeters.record(chunkRows, chunkNanos, checkpoint.remainingIds());
+
+            if (!checkpoint.isCompleted() && !pause())
+                break;
+        }
+
+        BulkJobResult result = new BulkJobResult(jobName, chunks, rows, checkpoint.getProcessedRows(),
+                checkpoint.isCompleted(), System.nanoTime() - start);
+        log.info("member bulk job : {}", result);
+        return result;
+    }
+
+    private BulkJobCheckpoint processChunk(String jobName, Predicate predicate,
+                                           Consumer<JPAUpdateClause> assignments, int chunkSize) {
+        BulkJobCheckpoint checkpoint = checkpointRepository.findById(jobName).orElseThrow();
+        Long upper = chunkUpperBound(checkpoint.getLastId(), chunkSize, checkpoint.getMaxId());
+        BulkDmlResult result = bulkDmlRepository.update(member,
+                member.id.gt(checkpoint.getLastId()).and(member.id.loe(upper)).and(predicate), assignments);
+        // 영속 상태이므로 커밋 시점에 청크의 수정과 함께 반영된다
+        checkpoint.advance(upper, result.getAffectedRows());
+        return checkpoint;
+    }
+
+    // id 가 띄엄띄엄해도 청크마다 chunkSize 건이 되도록 PK 인덱스에서 chunkSize 번째 id 를 찾는다
+    private Long chunkUpperBound(Long lastId, int chunkSize, Long maxId) {
+        Long upper = queryFactory
+                .select(member.id)
+                .from(member)
+                .where(member.id.gt(lastId))
+                .orderBy(member.id.asc())
+                .offset(chunkSize - 1)
+                .fetchFirst();
+        return upper == null || upper > maxId ? maxId : upper;
+    }
+
+    private Long maxId() {
+        Long maxId = queryFactory.select(member.id.max()).from(member).fetchOne();
+        return maxId == null ? 0L : maxId;
+    }
+
+    // 인터럽트되면 중단 (체크포인트가 남아 있으므로 다시 실행하면 이어서 처리)
+    private boolean pause() {
+        if (throttle.isZero())
+            return !Thread.currentThread().isInterrupted();
+        try {
+            Thread.sleep(throttle.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private class JobMeters {
+        private final Counter rows;
+        private final Timer chunk;
+        // 남은 id 범위 (처리 범위 끝 id - 마지막으로 커밋된 id)
+        private final AtomicLong lag;
+        // 마지막 청크의 초당 처리 행 수
+        private final AtomicLong rowsPerSecond;
+
+        JobMeters(String jobName) {
+            Tags tags = Tags.of("job", jobName);
+            this.rows = registry.counter("member.bulk-job.rows", tags);
+            this.chunk = registry.timer("member.bulk-job.chunk", tags);
+            this.lag = registry.gauge("member.bulk-job.lag", tags, new AtomicLong());
+            this.rowsPerSecond = registry.gauge("member.bulk-job.rows-per-second", tags, new AtomicLong());
+        }
+
+        void record(long chunkRows, long chunkNanos, long remaining) {
+            rows.increment(chunkRows);
+            chunk.record(chunkNanos, TimeUnit.NANOSECONDS);
+            lag.set(remaining);
+            rowsPerSecond.set(chunkNanos == 0 ? chunkRows : chunkRows * TimeUnit.SECONDS.toNanos(1) / chunkNanos);
+        }
+    }
+}
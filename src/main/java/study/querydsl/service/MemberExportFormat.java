@@ -0,0 +1,94 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+public enum MemberExportFormat {
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        RowWriter open(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            // 루트 값 사이의 기본 구분자(" ") 대신 행마다 개행을 직접 쓴다
+            generator.setRootValueSeparator(null);
+            return new RowWriter() {
+                @Override
+                public void write(MemberTeamDto row) throws IOException {
+                    generator.writeObject(row);
+                    generator.writeRaw('\n');
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    generator.flush();
+                }
+            };
+        }
+    },
+    CSV("text/csv", "csv") {
+        @Override
+        RowWriter open(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write("memberId,username,age,teamId,teamName\n");
+            return new RowWriter() {
+                @Override
+                public void write(MemberTeamDto row) throws IOException {
+                    writer.write(row.getMemberId() == null ? "" : String.valueOf(row.getMemberId()));
+                    writer.write(',');
+                    writer.write(escape(row.getUsername()));
+                    writer.write(',');
+                    writer.write(Integer.toString(row.getAge()));
+                    writer.write(',');
+                    writer.write(row.getTeamId() == null ? "" : String.valueOf(row.getTeamId()));
+                    writer.write(',');
+                    writer.write(escape(row.getTeamName()));
+                    writer.write('\n');
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    writer.flush();
+                }
+            };
+        }
+    };
+
+    private final String contentType;
+    private final String extension;
+
+    MemberExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    abstract RowWriter open(OutputStream out, ObjectMapper objectMapper) throws IOException;
+
+    private static String escape(String value) {
+        if (value == null)
+            return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    interface RowWriter {
+        void write(MemberTeamDto row) throws IOException;
+
+        void flush() throws IOException;
+    }
+}
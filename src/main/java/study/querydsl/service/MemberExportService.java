@@ -0,0 +1,47 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// 검색 결과를 List 로 모으지 않고 커서에서 읽는 대로 응답 스트림에 쓴다
+@Service
+@RequiredArgsConstructor
+public class MemberExportService {
+    static final int FETCH_SIZE = 500;
+    static final int CLEAR_INTERVAL = 1_000;
+
+    private final MemberRepository memberRepository;
+    private final EntityManager em;
+    private final ObjectMapper objectMapper;
+
+    // 스트림이 열려 있는 동안 커넥션을 유지해야 하므로 트랜잭션 안에서 끝까지 쓴다
+    @Transactional(readOnly = true)
+    public long export(MemberSearchCondition condition, MemberExportFormat format, OutputStream out) throws IOException {
+        MemberExportFormat.RowWriter writer = format.open(out, objectMapper);
+        long count = 0;
+        try (Stream<MemberTeamDto> rows = memberRepository.searchStream(condition, FETCH_SIZE)) {
+            Iterator<MemberTeamDto> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                if (++count % CLEAR_INTERVAL == 0) {
+                    // 영속성 컨텍스트와 출력 버퍼를 주기적으로 비워서 힙 사용량을 일정하게 유지
+                    em.clear();
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        return count;
+    }
+}
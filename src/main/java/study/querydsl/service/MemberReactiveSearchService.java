@@ -0,0 +1,51 @@
+package study.querydsl.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchPolicy;
+import study.querydsl.repository.MemberSortKey;
+
+// 블로킹 JPA 조회를 전용 bounded 스케줄러에서 키셋 페이지(chunk) 단위로 실행하고 Flux 로 내보낸다
+// 다음 chunk 는 클라이언트가 앞의 행을 소비해야(request) 조회하므로 느린 클라이언트가 서블릿 스레드나 커넥션을 붙잡지 않는다
+// chunk 크기는 내부에서 정하는 값이므로 max-page-size 로 미리 줄여서 요청 제한(size-clamped)에 잡히지 않게 한다
+@Service
+public class MemberReactiveSearchService implements DisposableBean {
+    private final MemberRepository memberRepository;
+    private final Scheduler scheduler;
+    private final int chunkSize;
+
+    public MemberReactiveSearchService(MemberRepository memberRepository, MemberSearchPolicy searchPolicy,
+                                       @Value("${member.search.reactive.threads:16}") int threads,
+                                       @Value("${member.search.reactive.queue-capacity:1000}") int queueCapacity,
+                                       @Value("${member.search.reactive.chunk-size:100}") int chunkSize) {
+        this.memberRepository = memberRepository;
+        this.scheduler = Schedulers.newBoundedElastic(threads, queueCapacity, "member-search-reactive");
+        this.chunkSize = Math.min(chunkSize, searchPolicy.getMaxPageSize());
+    }
+
+    public Flux<MemberTeamDto> search(MemberSearchCondition condition) {
+        return fetch(condition, null)
+                .expand(page -> page.isHasNext() ? fetch(condition, page.getNextCursor()) : Mono.empty())
+                // 한 번에 한 chunk 만 미리 가져온다
+                .flatMapIterable(MemberCursorPage::getContent, 1);
+    }
+
+    private Mono<MemberCursorPage> fetch(MemberSearchCondition condition, String cursor) {
+        return Mono.fromCallable(() -> memberRepository.searchByCursor(condition, MemberSortKey.ID, cursor, chunkSize))
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+}
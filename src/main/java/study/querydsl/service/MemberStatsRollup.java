@@ -0,0 +1,215 @@
+package study.querydsl.service;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberStatsDto;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberDataChangedEvent;
+import study.querydsl.repository.MemberDelta;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+// 팀별 나이 집계(count, sum, min, max, 히스토그램)를 메모리에 유지해서 GROUP BY 스캔 없이 O(팀 수)로 응답한다
+//  - 회원 insert/update/delete 는 커밋 후 변경 전/후 값(MemberDelta)으로 해당 팀의 카운터만 고친다
+//  - 행 단위 내역이 없는 변경(벌크 DML, 대량 적재, 팀 변경) 뒤에는 다음 조회 때 GROUP BY (team_id, age) 로 다시 만든다
+//    조회는 기다리지 않는다 : 다시 만드는 일은 백그라운드에서 하고 그동안은 마지막 스냅샷을 stale=true 로 응답 (처음 한 번만 직접 만든다)
+//  - 다시 만드는 동안 커밋된 변경은 스냅샷에 들어갔는지 알 수 없으므로 한 번 더 만들고,
+//    그래도 남을 수 있는 아주 드문 어긋남은 rebuild-interval 마다 다시 만들어 바로잡는다
+// 나이는 0 ~ MAX_AGE 살까지 나이별 건수를 센다 (삭제 후에도 min/max 를 정확히 유지하기 위함)
+// 범위 밖 나이는 양 끝 값으로 보고 센다 (히스토그램, min/max, sum 모두 같은 값)
+@Slf4j
+@Service
+public class MemberStatsRollup implements DisposableBean {
+    static final int MAX_AGE = 150;
+    private static final long NO_TEAM = -1L;
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate primaryTx;
+    private final long rebuildIntervalNanos;
+    private final Object deltaLock = new Object();
+    private final AtomicLong changes = new AtomicLong();
+    private final ExecutorService rebuilder;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private volatile Map<Long, TeamRollup> rollups = new ConcurrentHashMap<>();
+    private volatile boolean stale = true;
+    private volatile boolean built;
+    private volatile long builtAt;
+
+    public MemberStatsRollup(JPAQueryFactory queryFactory, PlatformTransactionManager transactionManager,
+                             @Value("${member.stats.rebuild-interval:10m}") Duration rebuildInterval) {
+        this.queryFactory = queryFactory;
+        // 읽기 전용이면 replica 로 라우팅되어 복제가 늦은 만큼 커밋된 변경이 빠진 채로 만들어지므로 primary 에서
+        this.primaryTx = new TransactionTemplate(transactionManager);
+        this.rebuildIntervalNanos = rebuildInterval.toNanos();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("member-stats-");
+        threadFactory.setDaemon(true);
+        this.rebuilder = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    public MemberStatsDto stats() {
+        if (!built)
+            rebuild();
+        boolean behind = stale;
+        if (behind || System.nanoTime() - builtAt > rebuildIntervalNanos)
+            requestRebuild();
+
+        long[] totalAgeCounts = new long[MAX_AGE + 1];
+        long totalCount = 0;
+        long totalSum = 0;
+        List<TeamStatsDto> teams = new ArrayList<>();
+        for (TeamRollup rollup : rollups.values()) {
+            synchronized (rollup) {
+                teams.add(rollup.toDto());
+                for (int age = 0; age <= MAX_AGE; age++)
+                    totalAgeCounts[age] += rollup.ageCounts[age];
+                totalCount += rollup.count;
+                totalSum += rollup.sum;
+            }
+        }
+        // 팀 없는 회원은 마지막에
+        teams.sort(Comparator.comparing(TeamStatsDto::getTeamId, Comparator.nullsLast(Comparator.naturalOrder())));
+        return new MemberStatsDto(toDto(null, null, totalCount, totalSum, totalAgeCounts), teams, behind);
+    }
+
+    @EventListener
+    public void onMemberDataChanged(MemberDataChangedEvent event) {
+        if (!event.affects(Member.class) && !event.affects(Team.class))
+            return;
+        if (event.isBulk() || !event.isDeltasComplete() || event.affects(Team.class)) {
+            changes.incrementAndGet();
+            stale = true;
+            return;
+        }
+
+        synchronized (deltaLock) {
+            changes.incrementAndGet();
+            if (stale)
+                return;
+            Map<Long, TeamRollup> current = rollups;
+            for (MemberDelta delta : event.getMemberDeltas()) {
+                if (delta.isBefore())
+                    rollupFor(current, delta.getBeforeTeamId()).add(delta.getBeforeAge(), -1);
+                if (delta.isAfter())
+                    rollupFor(current, delta.getAfterTeamId()).add(delta.getAfterAge(), 1);
+            }
+        }
+    }
+
+    private void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    // stale 이 그대로이므로 다음 조회가 다시 요청한다
+                    log.warn("member stats rollup rebuild failed", e);
+                }
+            });
+        }
+    }
+
+    // 다시 만드는 동안 들어온 행 단위 변경은 버려지는 이전 스냅샷에 적용되지 않도록 stale 인 채로 두고 건너뛴다
+    private synchronized void rebuild() {
+        if (built && !stale && System.nanoTime() - builtAt <= rebuildIntervalNanos)
+            return;
+        long seen = changes.get();
+
+        Map<Long, TeamRollup> rebuilt = primaryTx.execute(status -> load());
+
+        synchronized (deltaLock) {
+            rollups = rebuilt;
+            builtAt = System.nanoTime();
+            built = true;
+            stale = changes.get() != seen;
+        }
+    }
+
+    private Map<Long, TeamRollup> load() {
+        Map<Long, TeamRollup> rebuilt = new ConcurrentHashMap<>();
+        for (Tuple row : queryFactory.select(team.id, team.name).from(team).fetch())
+            rebuilt.put(row.get(team.id), new TeamRollup(row.get(team.id), row.get(team.name)));
+
+        // member.team.id 는 조인 없이 FK 컬럼으로 : (team_id, age) 인덱스만 읽는다
+        List<Tuple> rows = queryFactory
+                .select(member.team.id, member.age, member.count())
+                .from(member)
+                .groupBy(member.team.id, member.age)
+                .fetch();
+        for (Tuple row : rows)
+            rollupFor(rebuilt, row.get(member.team.id)).add(row.get(member.age), row.get(member.count()));
+        return rebuilt;
+    }
+
+    @Override
+    public void destroy() {
+        rebuilder.shutdownNow();
+    }
+
+    private static TeamRollup rollupFor(Map<Long, TeamRollup> rollups, Long teamId) {
+        return rollups.computeIfAbsent(teamId == null ? NO_TEAM : teamId, key -> new TeamRollup(teamId, null));
+    }
+
+    private static TeamStatsDto toDto(Long teamId, String teamName, long count, long sum, long[] ageCounts) {
+        Integer min = null;
+        Integer max = null;
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int age = 0; age <= MAX_AGE; age++) {
+            if (ageCounts[age] > 0) {
+                if (min == null)
+                    min = age;
+                max = age;
+            }
+            histogram.merge(age >= 100 ? "100+" : (age / 10 * 10) + "-" + (age / 10 * 10 + 9), ageCounts[age], Long::sum);
+        }
+        return new TeamStatsDto(teamId, teamName, count, sum, min, max, histogram);
+    }
+
+    private static class TeamRollup {
+        private final Long teamId;
+        private final String teamName;
+        private final long[] ageCounts = new long[MAX_AGE + 1];
+        private long count;
+        private long sum;
+
+        TeamRollup(Long teamId, String teamName) {
+            this.teamId = teamId;
+            this.teamName = teamName;
+        }
+
+        synchronized void add(int age, long members) {
+            int clamped = Math.max(0, Math.min(MAX_AGE, age));
+            ageCounts[clamped] += members;
+            count += members;
+            sum += clamped * members;
+        }
+
+        synchronized TeamStatsDto toDto() {
+            return MemberStatsRollup.toDto(teamId, teamName, count, sum, ageCounts);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 라우팅을 켜고 OSIV 처럼 요청 동안 EntityManager 하나를 묶어 둔 상태에서 트랜잭션마다 다시 라우팅되는지 확인
+// primary/replica 모두 같은 메모리 DB 이므로 어느 쪽으로 갔는지는 datasource.routing 메트릭으로 본다
+@SpringBootTest(properties = {
+        "member.datasource.routing.enabled=true",
+        "member.datasource.primary.jdbc-url=jdbc:h2:mem:routing-config;DB_CLOSE_DELAY=-1",
+        "member.datasource.replica.jdbc-url=jdbc:h2:mem:routing-config;DB_CLOSE_DELAY=-1"
+})
+class DataSourceRoutingConfigTest {
+    @Autowired private EntityManagerFactory emf;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private MemberRepository memberRepository;
+    @Autowired private MeterRegistry registry;
+
+    private EntityManager em;
+
+    @BeforeEach
+    void before() {
+        // OpenEntityManagerInViewInterceptor 가 요청 시작 시 하는 일
+        em = emf.createEntityManager();
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+    }
+
+    @AfterEach
+    void after() {
+        TransactionSynchronizationManager.unbindResource(emf);
+        em.close();
+    }
+
+    @Test
+    void readThenWriteInOneRequest() {
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        TransactionTemplate readWriteTx = new TransactionTemplate(transactionManager);
+
+        double replicaBefore = routed("read-only");
+        readOnlyTx.executeWithoutResult(status -> memberRepository.count());
+        assertThat(routed("read-only")).isEqualTo(replicaBefore + 1);
+
+        // 같은 요청의 쓰기 트랜잭션은 replica 커넥션을 이어 쓰지 않고 primary 에서 새로 받는다
+        double primaryBefore = routed("read-write");
+        Member saved = readWriteTx.execute(status -> memberRepository.save(new Member("routed", 10)));
+        assertThat(routed("read-write")).isGreaterThan(primaryBefore);
+
+        readWriteTx.executeWithoutResult(status -> memberRepository.deleteById(saved.getId()));
+    }
+
+    private double routed(String reason) {
+        return registry.get("datasource.routing").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,60 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 튜닝을 켠 컨텍스트에서 실제로 만들어진 풀의 설정을 확인
+class HikariTuningPostProcessorTest {
+
+    // spring.datasource 풀은 p6spy 데코레이터로 감싸진다
+    @Nested
+    @SpringBootTest(properties = {
+            "member.datasource.tuning.enabled=true",
+            "member.datasource.tuning.pool-size=3",
+            "spring.datasource.url=jdbc:h2:mem:tuning-default;DB_CLOSE_DELAY=-1"
+    })
+    class DecoratedPool {
+        @Autowired private DataSource dataSource;
+
+        @Test
+        void tuned() throws SQLException {
+            assertTuned(dataSource.unwrap(HikariDataSource.class));
+        }
+    }
+
+    @Nested
+    @SpringBootTest(properties = {
+            "member.datasource.tuning.enabled=true",
+            "member.datasource.tuning.pool-size=3",
+            "member.datasource.routing.enabled=true",
+            "member.datasource.primary.jdbc-url=jdbc:h2:mem:tuning-routing;DB_CLOSE_DELAY=-1",
+            "member.datasource.replica.jdbc-url=jdbc:h2:mem:tuning-routing;DB_CLOSE_DELAY=-1"
+    })
+    class RoutingPools {
+        @Autowired @Qualifier("primaryDataSource") private HikariDataSource primary;
+        @Autowired @Qualifier("replicaDataSource") private HikariDataSource replica;
+
+        @Test
+        void tuned() {
+            assertTuned(primary);
+            assertTuned(replica);
+            assertThat(replica.isReadOnly()).isTrue();
+        }
+    }
+
+    private static void assertTuned(HikariDataSource dataSource) {
+        assertThat(dataSource.getMaximumPoolSize()).isEqualTo(3);
+        assertThat(dataSource.getMinimumIdle()).isEqualTo(3);
+        assertThat(dataSource.getLeakDetectionThreshold()).isEqualTo(10_000);
+        assertThat(dataSource.getJdbcUrl()).endsWith(";QUERY_CACHE_SIZE=256");
+    }
+}
@@ -0,0 +1,59 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberDataChangedEvent;
+import study.querydsl.repository.MemberDelta;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 커밋/롤백을 직접 다루므로 테스트 트랜잭션 없이 실행하고, 커밋된 회원만 지운다
+@SpringBootTest
+@RecordApplicationEvents
+class MemberChangeTrackerTest {
+    @Autowired private MemberRepository memberRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private ApplicationEvents events;
+
+    private Long innerId;
+
+    @AfterEach
+    void after() {
+        if (innerId != null)
+            memberRepository.deleteAllByIdInBatch(List.of(innerId));
+    }
+
+    @Test
+    void requiresNewInsideRolledBackTransaction() {
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+        TransactionTemplate inner = new TransactionTemplate(transactionManager);
+        inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        outer.executeWithoutResult(status -> {
+            memberRepository.saveAndFlush(new Member("tracker-outer", 10));
+            innerId = inner.execute(s -> memberRepository.saveAndFlush(new Member("tracker-inner", 20)).getId());
+            memberRepository.saveAndFlush(new Member("tracker-outer2", 30));
+            status.setRollbackOnly();
+        });
+
+        // 안쪽 트랜잭션 커밋 때 자기 변경만 발행되고, 롤백된 바깥 트랜잭션은 아무것도 발행하지 않는다
+        List<MemberDataChangedEvent> published = events.stream(MemberDataChangedEvent.class)
+                .collect(Collectors.toList());
+        assertThat(published).hasSize(1);
+        assertThat(published.get(0).isDeltasComplete()).isTrue();
+        assertThat(published.get(0).getMemberDeltas()).extracting(MemberDelta::getMemberId)
+                .containsExactly(innerId);
+    }
+}
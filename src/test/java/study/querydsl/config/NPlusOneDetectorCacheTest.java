@@ -0,0 +1,48 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+// 팀은 커밋된 뒤에야 2차 캐시에 들어가므로 테스트 트랜잭션 없이 실행하고, 만든 회원/팀만 지운다
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.default_batch_fetch_size=1")
+class NPlusOneDetectorCacheTest {
+    @Autowired private MemberRepository memberRepository;
+    @Autowired private TeamRepository teamRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private final List<Long> memberIds = new ArrayList<>();
+    private final List<Long> teamIds = new ArrayList<>();
+
+    @AfterEach
+    void after() {
+        memberRepository.deleteAllByIdInBatch(memberIds);
+        teamRepository.deleteAllByIdInBatch(teamIds);
+    }
+
+    @Test
+    void lazyLoadsFromSecondLevelCacheAreNotCounted() {
+        for (int i = 0; i < 12; i++) {
+            Team team = teamRepository.save(new Team("l2-team" + i));
+            teamIds.add(team.getId());
+            memberIds.add(memberRepository.save(new Member("l2-member" + i, i, team)).getId());
+        }
+
+        // 팀 프록시 12 개가 모두 2차 캐시에서 초기화되므로 FAIL 모드에서도 예외가 없다
+        assertThatCode(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                memberRepository.findAllById(memberIds).forEach(m -> m.getTeam().getName())))
+                .doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,52 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 배치 페치가 켜져 있으면 N+1 이 생기지 않으므로 끄고 확인
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.default_batch_fetch_size=1")
+@Transactional
+class NPlusOneDetectorTest {
+    @Autowired private EntityManager em;
+    @Autowired private MemberRepository memberRepository;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 12; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            em.persist(new Member("member" + i, i, team));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void lazyLoadingPerRowFails() {
+        List<Member> members = memberRepository.findAll();
+
+        assertThatThrownBy(() -> members.forEach(m -> m.getTeam().getName()))
+                .isInstanceOf(NPlusOneException.class);
+    }
+
+    @Test
+    void entityGraphLoadsTeamsTogether() {
+        List<Member> members = memberRepository.findAllWithTeam();
+
+        assertThat(members).hasSize(12);
+        assertThat(members).allSatisfy(m ->
+                assertThat(em.getEntityManagerFactory().getPersistenceUnitUtil().isLoaded(m.getTeam())).isTrue());
+    }
+}
@@ -0,0 +1,69 @@
+package study.querydsl.config;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.mockito.Mockito.*;
+
+class ReadOnlyRequestInterceptorTest {
+    private final EntityManagerFactory emf = mock(EntityManagerFactory.class);
+    private final Session session = mock(Session.class);
+    private final ReadOnlyRequestInterceptor interceptor = new ReadOnlyRequestInterceptor(emf);
+
+    @BeforeEach
+    void before() {
+        // OSIV 인터셉터가 열어둔 영속성 컨텍스트
+        EntityManager em = mock(EntityManager.class);
+        when(em.unwrap(Session.class)).thenReturn(session);
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+    }
+
+    @AfterEach
+    void after() {
+        TransactionSynchronizationManager.unbindResource(emf);
+    }
+
+    @Test
+    void annotatedHandlerIsReadOnly() throws Exception {
+        interceptor.preHandle(get(), new MockHttpServletResponse(), handler("search"));
+
+        verify(session).setDefaultReadOnly(true);
+        verify(session).setHibernateFlushMode(FlushMode.MANUAL);
+    }
+
+    @Test
+    void otherGetHandlerKeepsSession() throws Exception {
+        interceptor.preHandle(get(), new MockHttpServletResponse(), handler("touch"));
+
+        verifyNoInteractions(session);
+    }
+
+    private MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/members");
+    }
+
+    private HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(name));
+    }
+
+    static class Handlers {
+        @ReadOnlyRequest
+        public void search() {
+        }
+
+        // GET 이지만 서비스에서 쓰기가 일어나는 핸들러
+        public void touch() {
+        }
+    }
+}
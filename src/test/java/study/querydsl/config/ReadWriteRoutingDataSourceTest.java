@@ -0,0 +1,86 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 서로 다른 두 H2 메모리 DB 를 primary/replica 로 두고 어느 쪽에서 읽었는지 확인
+class ReadWriteRoutingDataSourceTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate routed;
+    private TransactionTemplate readWriteTx;
+    private TransactionTemplate readOnlyTx;
+
+    @BeforeEach
+    void before() {
+        primary = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1", "sa", ""));
+        replica = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1", "sa", ""));
+        primary.execute("create table node(name varchar(20))");
+        primary.update("insert into node values ('primary')");
+        replica.execute("create table node(name varchar(20))");
+        replica.update("insert into node values ('replica')");
+        replica.execute("create table replica_lag(seconds double)");
+        replica.update("insert into replica_lag values (0)");
+
+        lagMonitor = new ReplicaLagMonitor(replica.getDataSource(), "select seconds from replica_lag",
+                Duration.ofSeconds(1), Duration.ZERO, registry);
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                primary.getDataSource(), replica.getDataSource(), lagMonitor, registry);
+        routing.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        routed = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWriteTx = new TransactionTemplate(transactionManager);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    @AfterEach
+    void after() {
+        primary.execute("drop all objects");
+        replica.execute("drop all objects");
+    }
+
+    @Test
+    void routeByReadOnly() {
+        assertThat(readOnlyTx.execute(status -> node())).isEqualTo("replica");
+        assertThat(readWriteTx.execute(status -> node())).isEqualTo("primary");
+        // 트랜잭션 밖은 primary
+        assertThat(node()).isEqualTo("primary");
+
+        assertThat(registry.get("datasource.routing").tag("reason", "read-only").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void fallbackToPrimaryWhenReplicaLags() {
+        replica.update("update replica_lag set seconds = 10");
+        lagMonitor.check();
+
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+        assertThat(lagMonitor.getLagMillis()).isEqualTo(10_000);
+        assertThat(readOnlyTx.execute(status -> node())).isEqualTo("primary");
+        assertThat(registry.get("datasource.routing").tag("reason", "replica-lag").counter().count()).isEqualTo(1);
+
+        replica.update("update replica_lag set seconds = 0.2");
+        lagMonitor.check();
+        assertThat(readOnlyTx.execute(status -> node())).isEqualTo("replica");
+    }
+
+    private String node() {
+        return routed.queryForObject("select name from node", String.class);
+    }
+}
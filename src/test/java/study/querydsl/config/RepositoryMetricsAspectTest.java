@@ -0,0 +1,59 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.InvalidSearchRequestException;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSortKey;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class RepositoryMetricsAspectTest {
+    @Autowired private EntityManager em;
+    @Autowired private MemberRepository memberRepository;
+    @Autowired private MeterRegistry registry;
+
+    @Test
+    void successAndError() {
+        em.persist(new Member("member1", 10));
+        em.flush();
+        // 컨텍스트를 공유하는 다른 테스트의 기록이 있을 수 있으므로 증가분으로 확인
+        long success = invocations("success");
+        long error = invocations("error");
+        long mapped = mappings();
+
+        memberRepository.searchByCursor(new MemberSearchCondition(), MemberSortKey.ID, null, 10);
+        assertThatThrownBy(() -> memberRepository.searchByCursor(new MemberSearchCondition(), MemberSortKey.ID, "bad", 10))
+                .isInstanceOf(InvalidSearchRequestException.class);
+
+        assertThat(invocations("success")).isEqualTo(success + 1);
+        assertThat(invocations("error")).isEqualTo(error + 1);
+        assertThat(mappings()).isEqualTo(mapped + 1);
+        // p6spy 에서 센 문장 수
+        assertThat(registry.get("repository.statements")
+                .tags("method", "searchByCursor", "outcome", "success").summary().max()).isGreaterThanOrEqualTo(1);
+    }
+
+    private long invocations(String outcome) {
+        Timer timer = registry.find("repository.invocations")
+                .tags("method", "searchByCursor", "shape", "all", "outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private long mappings() {
+        Timer timer = registry.find("repository.mapping")
+                .tags("method", "searchByCursor", "shape", "all", "outcome", "success").timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,21 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SamplingSqlLoggerTest {
+
+    @Test
+    void fingerprint() {
+        String first = "select member0_.member_id as col_0_0_ from member member0_\n" +
+                "where member0_.username='member1' and member0_.team_id in (1, 2, 3) limit 20";
+        String second = "select member0_.member_id as col_0_0_ from member member0_ " +
+                "where member0_.username='it''s' and member0_.team_id in (7) limit 10";
+
+        assertThat(SamplingSqlLogger.fingerprint(first))
+                .isEqualTo("select member0_.member_id as col_0_0_ from member member0_ " +
+                        "where member0_.username=? and member0_.team_id in (?) limit ?");
+        assertThat(SamplingSqlLogger.fingerprint(second)).isEqualTo(SamplingSqlLogger.fingerprint(first));
+    }
+}
@@ -0,0 +1,67 @@
+package study.querydsl.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Smile/CBOR 응답에도 spring.jackson.* 설정이 적용되는지 (기본 컨버터라면 camelCase 그대로)
+@SpringBootTest(properties = "spring.jackson.property-naming-strategy=SNAKE_CASE")
+@AutoConfigureMockMvc
+@Transactional
+class WebConfigTest {
+    @Autowired private EntityManager em;
+    @Autowired private MockMvc mockMvc;
+
+    @BeforeEach
+    void before() {
+        Team team = new Team("binaryTeam");
+        em.persist(team);
+        em.persist(new Member("binary-member", 10, team));
+        em.flush();
+    }
+
+    @Test
+    void smileResponse() throws Exception {
+        JsonNode row = fetch(MediaType.valueOf("application/x-jackson-smile"), new ObjectMapper(new SmileFactory()));
+
+        assertThat(row.get("username").asText()).isEqualTo("binary-member");
+        assertThat(row.get("team_name").asText()).isEqualTo("binaryTeam");
+    }
+
+    @Test
+    void cborResponse() throws Exception {
+        JsonNode row = fetch(MediaType.APPLICATION_CBOR, new ObjectMapper(new CBORFactory()));
+
+        assertThat(row.get("username").asText()).isEqualTo("binary-member");
+        assertThat(row.get("team_name").asText()).isEqualTo("binaryTeam");
+    }
+
+    private JsonNode fetch(MediaType accept, ObjectMapper reader) throws Exception {
+        byte[] body = mockMvc.perform(get("/v1/members").param("username", "binary-member").accept(accept))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(accept))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode rows = reader.readTree(body);
+        assertThat(rows).hasSize(1);
+        return rows.get(0);
+    }
+}
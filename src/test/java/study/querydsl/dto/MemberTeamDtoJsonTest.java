@@ -0,0 +1,52 @@
+package study.querydsl.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberTeamDtoJsonTest {
+    private final List<MemberTeamDto> rows = List.of(
+            new MemberTeamDto(1L, "member1", 10, 1L, "teamA"),
+            new MemberTeamDto(2L, "회원2", 20, null, null));
+
+    @Test
+    void jsonTest() throws Exception {
+        String expected = "[" +
+                "{\"memberId\":1,\"username\":\"member1\",\"age\":10,\"teamId\":1,\"teamName\":\"teamA\"}," +
+                "{\"memberId\":2,\"username\":\"회원2\",\"age\":20,\"teamId\":null,\"teamName\":null}]";
+
+        assertThat(new ObjectMapper().writeValueAsString(rows)).isEqualTo(expected);
+        assertThat(new ObjectMapper().registerModule(new BlackbirdModule()).writeValueAsString(rows)).isEqualTo(expected);
+    }
+
+    @Test
+    void mapperSettingsApplied() throws Exception {
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new BlackbirdModule())
+                .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+        assertThat(mapper.writeValueAsString(rows.get(1)))
+                .isEqualTo("{\"member_id\":2,\"username\":\"회원2\",\"age\":20}");
+    }
+
+    @Test
+    void binaryRoundTripTest() throws Exception {
+        for (ObjectMapper mapper : List.of(new ObjectMapper(new SmileFactory()), new ObjectMapper(new CBORFactory()))) {
+            mapper.registerModule(new BlackbirdModule());
+            byte[] bytes = mapper.writeValueAsBytes(rows);
+            MemberTeamDto[] read = mapper.readValue(bytes, MemberTeamDto[].class);
+
+            assertThat(read).containsExactlyElementsOf(rows);
+            assertThat(bytes.length).isLessThan(new ObjectMapper().writeValueAsBytes(rows).length);
+        }
+    }
+}
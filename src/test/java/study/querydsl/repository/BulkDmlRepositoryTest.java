@@ -0,0 +1,80 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.BulkDmlResult;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class BulkDmlRepositoryTest {
+    @Autowired private EntityManager em;
+    @Autowired private BulkDmlRepository bulkDmlRepository;
+
+    private Team teamA;
+    private Member member1;
+    private Member member2;
+
+    @BeforeEach
+    void before() {
+        teamA = new Team("teamA");
+        em.persist(teamA);
+        member1 = new Member("member1", 10, teamA);
+        member2 = new Member("member2", 30, teamA);
+        em.persist(member1);
+        em.persist(member2);
+    }
+
+    @Test
+    void bulkUpdateDetachesOnlyAffected() {
+        BulkDmlResult result = bulkDmlRepository.update(member, member.age.lt(20),
+                update -> update.set(member.username, "비회원"));
+
+        assertThat(result.getAffectedRows()).isEqualTo(1);
+        // member1 과 member1 을 담고 있던 teamA.members 의 주인
+        assertThat(result.getDetachedEntities()).isEqualTo(2);
+        assertThat(em.contains(member1)).isFalse();
+        assertThat(em.contains(teamA)).isFalse();
+        assertThat(em.contains(member2)).isTrue();
+
+        // em.clear() 없이도 다시 조회하면 바뀐 값
+        assertThat(em.find(Member.class, member1.getId()).getUsername()).isEqualTo("비회원");
+    }
+
+    @Test
+    void pendingChangesSurviveDetach() {
+        // 분리될 엔티티와 컬렉션 주인의 flush 전 변경
+        teamA.setName("teamA-renamed");
+        member1.setAge(11);
+
+        BulkDmlResult result = bulkDmlRepository.update(member, member.age.lt(20),
+                update -> update.set(member.username, "비회원"));
+
+        assertThat(em.contains(teamA)).isFalse();
+        assertThat(em.find(Team.class, teamA.getId()).getName()).isEqualTo("teamA-renamed");
+        Member reloaded = em.find(Member.class, member1.getId());
+        assertThat(reloaded.getAge()).isEqualTo(11);
+        assertThat(reloaded.getUsername()).isEqualTo("비회원");
+        assertThat(result.getAffectedRows()).isEqualTo(1);
+    }
+
+    @Test
+    void bulkDelete() {
+        BulkDmlResult result = bulkDmlRepository.delete(member, member.age.gt(20));
+
+        assertThat(result.getAffectedRows()).isEqualTo(1);
+        assertThat(result.getTables()).isNotEmpty();
+        assertThat(em.contains(member2)).isFalse();
+        assertThat(em.find(Member.class, member2.getId())).isNull();
+        assertThat(em.contains(member1)).isTrue();
+    }
+}
@@ -0,0 +1,121 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+import static study.querydsl.entity.QMember.member;
+
+// COLUMNAR 엔진으로 커밋된 변경이 검색에 보이는지 확인 (변경 이벤트는 커밋 후에 오므로 테스트 트랜잭션 없이 실행하고 직접 정리한다)
+@SpringBootTest(properties = "member.search.engine=COLUMNAR")
+class MemberColumnarIndexTest {
+    @Autowired private MemberRepository memberRepository;
+    @Autowired private TeamRepository teamRepository;
+    @Autowired private BulkDmlRepository bulkDmlRepository;
+    @Autowired private MemberColumnarIndex columnarIndex;
+
+    private final List<Long> memberIds = new ArrayList<>();
+    private final List<Long> teamIds = new ArrayList<>();
+
+    @AfterEach
+    void after() {
+        memberRepository.deleteAllByIdInBatch(memberIds);
+        teamRepository.deleteAllByIdInBatch(teamIds);
+    }
+
+    @Test
+    void committedInsertIsSearchable() {
+        // 팀 추가는 스냅샷을 다시 만들게 하므로 회원보다 먼저
+        Team team = save(new Team("columnar-team"));
+        awaitReady();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("columnar-new");
+        // 결과 캐시에 빈 결과가 들어간 상태
+        assertThat(memberRepository.search(condition)).isEmpty();
+
+        save(new Member("columnar-new", 30, team));
+
+        assertThat(memberRepository.search(condition)).extracting("teamName").containsExactly("columnar-team");
+        // JPA 로 넘어가지 않고 스냅샷 + overlay 에서
+        assertThat(columnarIndex.isReady()).isTrue();
+        assertThat(columnarIndex.overlaySize()).isGreaterThan(0);
+        assertThat(columnarIndex.search(condition)).extracting("username").containsExactly("columnar-new");
+    }
+
+    @Test
+    void bulkUpdateRebuildsSnapshot() {
+        Team team = save(new Team("columnar-team"));
+        Member saved = save(new Member("columnar-bulk", 20, team));
+        awaitReady();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("columnar-bulk");
+        bulkDmlRepository.update(member, member.id.eq(saved.getId()), update -> update.set(member.age, 21));
+
+        // 다시 만들 때까지는 JPA 로
+        assertThat(memberRepository.search(condition)).extracting("age").containsExactly(21);
+
+        awaitReady();
+        List<MemberTeamDto> fromSnapshot = columnarIndex.search(condition);
+        assertThat(fromSnapshot).extracting("age").containsExactly(21);
+    }
+
+    @Test
+    void failedRebuildIsRetried() {
+        PlatformTransactionManager failing = mock(PlatformTransactionManager.class);
+        when(failing.getTransaction(any())).thenThrow(new CannotCreateTransactionException("database down"));
+        MemberColumnarIndex index = new MemberColumnarIndex(mock(JPAQueryFactory.class), failing,
+                MemberSearchEngine.COLUMNAR, 10, Duration.ofMillis(10), Duration.ofMillis(40), Duration.ZERO);
+        try {
+            index.start();
+
+            // 변경 이벤트 없이도 다시 시도한다
+            verify(failing, timeout(2000).atLeast(3)).getTransaction(any());
+            // replica 가 아니라 primary 에서 읽는다
+            verify(failing, never()).getTransaction(argThat(definition -> definition.isReadOnly()));
+            assertThat(index.isReady()).isFalse();
+            assertThat(index.search(new MemberSearchCondition())).isNull();
+        } finally {
+            index.destroy();
+        }
+    }
+
+    private void awaitReady() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!columnarIndex.isReady()) {
+            assertThat(System.nanoTime()).as("columnar snapshot rebuilt in time").isLessThan(deadline);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+        }
+    }
+
+    private Team save(Team team) {
+        Team saved = teamRepository.save(team);
+        teamIds.add(saved.getId());
+        return saved;
+    }
+
+    private Member save(Member member) {
+        Member saved = memberRepository.save(member);
+        memberIds.add(saved.getId());
+        return saved;
+    }
+}
@@ -0,0 +1,71 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberColumnarSnapshotTest {
+    private MemberColumnarSnapshot snapshot;
+
+    @BeforeEach
+    void before() {
+        snapshot = new MemberColumnarSnapshot.Builder(2)
+                .team(1L, "teamA")
+                .team(2L, "teamB")
+                .member(1L, "member1", 10, 1L)
+                .member(2L, "member2", 20, 1L)
+                .member(3L, "member3", 30, 2L)
+                .member(4L, "member4", 40, 2L)
+                .member(5L, "회원5", 25, null)
+                .build();
+    }
+
+    @Test
+    void searchByUsername() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("회원5");
+
+        List<MemberTeamDto> result = snapshot.search(condition, Set.of());
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getMemberId()).isEqualTo(5L);
+        assertThat(result.get(0).getTeamId()).isNull();
+        assertThat(result.get(0).getTeamName()).isNull();
+    }
+
+    @Test
+    void searchByTeamAndAge() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(35);
+
+        List<MemberTeamDto> result = snapshot.search(condition, Set.of());
+
+        assertThat(result).extracting("username").containsExactly("member4");
+    }
+
+    @Test
+    void searchByAgeRange() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(30);
+
+        List<MemberTeamDto> result = snapshot.search(condition, Set.of());
+
+        assertThat(result).extracting("username").containsExactly("member2", "회원5", "member3");
+    }
+
+    @Test
+    void excludedIdsAreSkipped() {
+        List<MemberTeamDto> result = snapshot.search(new MemberSearchCondition(), Set.of(1L, 3L));
+
+        assertThat(result).extracting("memberId").containsExactlyInAnyOrder(2L, 4L, 5L);
+        assertThat(snapshot.size()).isEqualTo(5);
+    }
+}
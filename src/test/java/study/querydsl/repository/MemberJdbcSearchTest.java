@@ -0,0 +1,67 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberJdbcSearchTest {
+    @Autowired private EntityManager em;
+    @Autowired private MemberJdbcSearch jdbcSearch;
+    @Autowired private MemberSearchPlanCache planCache;
+
+    @BeforeEach
+    void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, null));
+        // JDBC 경로는 flush 하지 않는다
+        em.flush();
+    }
+
+    @Test
+    void sameResultAsJpa() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(15);
+
+        List<MemberTeamDto> result = jdbcSearch.search(condition);
+
+        assertThat(result).extracting("username").containsExactly("member2");
+        assertThat(result).isEqualTo(planCache.search(condition));
+    }
+
+    @Test
+    void nullTeam() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member4");
+        condition.setAgeLoe(40);
+
+        List<MemberTeamDto> result = jdbcSearch.search(condition);
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getMemberId()).isNotNull();
+        assertThat(result.get(0).getTeamId()).isNull();
+        assertThat(result.get(0).getTeamName()).isNull();
+        assertThat(jdbcSearch.sqlFor(MemberSearchPlanCache.USERNAME | MemberSearchPlanCache.AGE_LOE))
+                .containsIgnoringCase("left outer join");
+    }
+}
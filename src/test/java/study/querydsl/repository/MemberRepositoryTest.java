@@ -6,15 +6,19 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberCursorPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
 
 import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Transactional
@@ -90,4 +94,120 @@ class MemberRepositoryTest {
         assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchByCursorTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 40, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+
+        Member member3 = new Member("member3", 20, teamB);
+        Member member4 = new Member("member4", 10, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        MemberCursorPage first = memberRepository.searchByCursor(condition, MemberSortKey.AGE, null, 3);
+        assertThat(first.getContent()).extracting("username").containsExactly("member4", "member2", "member3");
+        assertThat(first.isHasNext()).isTrue();
+
+        MemberCursorPage second = memberRepository.searchByCursor(condition, MemberSortKey.AGE, first.getNextCursor(), 3);
+        assertThat(second.getContent()).extracting("username").containsExactly("member1");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void searchByCursorNullUsernameTest() {
+        Team team = new Team("cursorTeam");
+        em.persist(team);
+        Member nullFirst = new Member(null, 10, team);
+        em.persist(nullFirst);
+        em.persist(new Member("b", 20, team));
+        Member nullSecond = new Member(null, 30, team);
+        em.persist(nullSecond);
+        em.persist(new Member("a", 40, team));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("cursorTeam");
+
+        // 오름차순에서 null 은 맨 앞, 키셋 조건이 null 행을 빠뜨리지 않는다
+        MemberCursorPage first = memberRepository.searchByCursor(condition, MemberSortKey.USERNAME, null, 2);
+        assertThat(first.getContent()).extracting("memberId").containsExactly(nullFirst.getId(), nullSecond.getId());
+        MemberCursorPage second = memberRepository.searchByCursor(condition, MemberSortKey.USERNAME, first.getNextCursor(), 2);
+        assertThat(second.getContent()).extracting("username").containsExactly("a", "b");
+        assertThat(second.isHasNext()).isFalse();
+
+        // null 값 경계에서 이어지는 커서
+        String afterNull = new MemberCursor(MemberSortKey.USERNAME, nullFirst.getId(), null).encode();
+        MemberCursorPage rest = memberRepository.searchByCursor(condition, MemberSortKey.USERNAME, afterNull, 2);
+        assertThat(rest.getContent()).extracting("memberId").first().isEqualTo(nullSecond.getId());
+        assertThat(rest.getContent()).extracting("username").containsExactly(null, "a");
+    }
+
+    @Test
+    void invalidCursorTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        assertThatThrownBy(() -> memberRepository.searchByCursor(condition, MemberSortKey.ID, "not-a-cursor", 3))
+                .isInstanceOf(InvalidSearchRequestException.class);
+        assertThatThrownBy(() -> MemberSortKey.from("teamName"))
+                .isInstanceOf(InvalidSearchRequestException.class);
+        // null 이 될 수 없는 정렬 키에 값이 빠진 커서
+        String missingAge = new MemberCursor(MemberSortKey.AGE, 1L, null).encode();
+        assertThatThrownBy(() -> memberRepository.searchByCursor(condition, MemberSortKey.AGE, missingAge, 3))
+                .isInstanceOf(InvalidSearchRequestException.class);
+        // 숫자가 아닌 나이 (조작된 커서)
+        String malformedAge = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("AGE:1:abc".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> MemberCursor.decode(malformedAge))
+                .isInstanceOf(InvalidSearchRequestException.class);
+        assertThatThrownBy(() -> memberRepository.searchByCursor(condition, MemberSortKey.AGE, malformedAge, 3))
+                .isInstanceOf(InvalidSearchRequestException.class);
+    }
+
+    @Test
+    void searchComplexCountTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        for (int i = 0; i < 10; i++)
+            em.persist(new Member("member" + i, i, i % 2 == 0 ? teamA : teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setUsername("");
+
+        Page<MemberTeamDto> first = memberRepository.searchComplex(condition, PageRequest.of(0, 2), MemberCountMode.CACHED);
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(first.getContent()).extracting("teamName").containsOnly("teamA");
+
+        Page<MemberTeamDto> second = memberRepository.searchComplex(condition, PageRequest.of(1, 2), MemberCountMode.ESTIMATED);
+        assertThat(second.getTotalElements()).isEqualTo(5);
+        assertThat(second.getTotalPages()).isEqualTo(3);
+    }
+
+    @Test
+    void searchUnknownTeamTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamZ");
+
+        Page<MemberTeamDto> result = memberRepository.searchComplex(condition, PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).isEmpty();
+        assertThat(result.getTotalElements()).isZero();
+    }
+}
@@ -0,0 +1,82 @@
+package study.querydsl.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberSearchPlanCacheTest {
+    @Autowired private EntityManager em;
+    @Autowired private MemberSearchPlanCache planCache;
+    @Autowired private MeterRegistry registry;
+
+    @Test
+    void shapeTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        assertThat(MemberSearchPlanCache.shapeOf(condition)).isEqualTo(0);
+
+        condition.setUsername(" ");
+        condition.setTeamName("teamA");
+        condition.setAgeLoe(20);
+        assertThat(MemberSearchPlanCache.shapeOf(condition))
+                .isEqualTo(MemberSearchPlanCache.TEAM_NAME | MemberSearchPlanCache.AGE_LOE);
+    }
+
+    @Test
+    void cacheHitTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(35);
+
+        List<MemberTeamDto> first = planCache.search(condition);
+        long hits = planCache.hitCount();
+
+        condition.setAgeGoe(25);
+        List<MemberTeamDto> second = planCache.search(condition);
+
+        assertThat(first).extracting("username").containsExactly("member4");
+        assertThat(second).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+        assertThat(planCache.hitCount()).isEqualTo(hits + 1);
+        assertThat(registry.get("member.search.plan.cache").tag("result", "hit").functionCounter().count())
+                .isEqualTo(planCache.hitCount());
+        assertThat(registry.get("member.search.plan.cache").tag("result", "miss").functionCounter().count())
+                .isEqualTo(planCache.missCount());
+        assertThat(planCache.planFor(MemberSearchPlanCache.TEAM_NAME | MemberSearchPlanCache.AGE_GOE).getParameters())
+                .containsExactly("teamName", "ageGoe");
+    }
+
+    @Test
+    void peekDoesNotCount() {
+        int shape = MemberSearchPlanCache.USERNAME | MemberSearchPlanCache.AGE_LOE;
+        long hits = planCache.hitCount();
+        long misses = planCache.missCount();
+
+        MemberSearchPlanCache.Plan plan = planCache.peek(shape);
+
+        assertThat(plan.getParameters()).containsExactly("username", "ageLoe");
+        assertThat(planCache.hitCount()).isEqualTo(hits);
+        assertThat(planCache.missCount()).isEqualTo(misses);
+    }
+}
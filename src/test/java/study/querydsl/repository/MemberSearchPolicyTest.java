@@ -0,0 +1,117 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.OrderSpecifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberSearchPolicyTest {
+    private MeterRegistry registry;
+    private MemberSearchPolicy policy;
+    private final MemberSearchCondition condition = new MemberSearchCondition();
+
+    @BeforeEach
+    void before() {
+        registry = new SimpleMeterRegistry();
+        // 페이지 크기 최대 3, offset 4 이상은 키셋으로
+        policy = new MemberSearchPolicy(3, 4, 10, 10, Duration.ofMinutes(5), registry);
+    }
+
+    @Test
+    void pageSizeAndSortTest() {
+        MemberPageQuery query = policy.resolve(condition, PageRequest.of(1, 100, Sort.by(Sort.Direction.DESC, "age")));
+
+        assertThat(query.getPageable().getPageSize()).isEqualTo(3);
+        assertThat(query.getOffset()).isEqualTo(3);
+        assertThat(query.getSortKey()).isEqualTo(MemberSortKey.AGE);
+        assertThat(query.isDescending()).isTrue();
+        assertThat(count("size-clamped")).isEqualTo(1);
+
+        // 정렬이 없으면 id 순
+        assertThat(policy.resolve(condition, PageRequest.of(0, 2)).getSortKey()).isEqualTo(MemberSortKey.ID);
+
+        assertThatThrownBy(() -> policy.resolve(condition, PageRequest.of(0, 2, Sort.by("teamName"))))
+                .isInstanceOf(InvalidSearchRequestException.class);
+        assertThatThrownBy(() -> policy.resolve(condition, PageRequest.of(0, 2, Sort.by("age", "username"))))
+                .isInstanceOf(InvalidSearchRequestException.class);
+        assertThat(count("sort-rejected")).isEqualTo(2);
+    }
+
+    @Test
+    void deepOffsetToKeysetTest() {
+        MemberPageQuery second = policy.resolve(condition, PageRequest.of(1, 3));
+        assertThat(second.getSeek()).isNull();
+        policy.recordBoundary(second, List.of(
+                new MemberTeamDto(4L, "member4", 40, null, null),
+                new MemberTeamDto(5L, "member5", 50, null, null),
+                new MemberTeamDto(6L, "member6", 60, null, null)));
+
+        // offset 6 : 기억해 둔 경계(id 6) 이후부터 offset 없이
+        MemberPageQuery third = policy.resolve(condition, PageRequest.of(2, 3));
+        assertThat(third.getOffset()).isEqualTo(0);
+        assertThat(third.getSeek()).isEqualTo(MemberSortKey.ID.after("6", 6L));
+
+        // offset 9 : 가장 가까운 경계부터 남은 3 건만 건너뛴다
+        MemberPageQuery fourth = policy.resolve(condition, PageRequest.of(3, 3));
+        assertThat(fourth.getOffset()).isEqualTo(3);
+        assertThat(fourth.getSeek()).isNotNull();
+        assertThat(count("keyset-seek")).isEqualTo(2);
+
+        // 데이터가 바뀌면 경계를 버린다
+        policy.onMemberDataChanged(new MemberDataChangedEvent(Set.of(Member.class), false));
+        MemberPageQuery again = policy.resolve(condition, PageRequest.of(2, 3));
+        assertThat(again.getSeek()).isNull();
+        assertThat(again.getOffset()).isEqualTo(6);
+        assertThat(count("deep-offset")).isEqualTo(1);
+    }
+
+    @Test
+    void nullSortValueBoundaryTest() {
+        MemberPageQuery second = policy.resolve(condition, PageRequest.of(1, 3, Sort.by("username")));
+        policy.recordBoundary(second, List.of(
+                new MemberTeamDto(4L, null, 40, null, null),
+                new MemberTeamDto(5L, null, 50, null, null),
+                new MemberTeamDto(6L, null, 60, null, null)));
+
+        MemberPageQuery third = policy.resolve(condition, PageRequest.of(2, 3, Sort.by("username")));
+        assertThat(third.getSeek()).isEqualTo(MemberSortKey.USERNAME.after(null, 6L));
+
+        // 오름차순이면 null 이 맨 앞 (H2 기본), 내림차순이면 맨 뒤
+        assertThat(MemberSortKey.USERNAME.orderSpecifiers(false)[0].getNullHandling())
+                .isEqualTo(OrderSpecifier.NullHandling.NullsFirst);
+        assertThat(MemberSortKey.USERNAME.orderSpecifiers(true)[0].getNullHandling())
+                .isEqualTo(OrderSpecifier.NullHandling.NullsLast);
+    }
+
+    @Test
+    void expiredBoundaryTest() {
+        MemberSearchPolicy expiring = new MemberSearchPolicy(3, 4, 10, 10, Duration.ZERO, registry);
+        MemberPageQuery second = expiring.resolve(condition, PageRequest.of(1, 3));
+        expiring.recordBoundary(second, List.of(
+                new MemberTeamDto(4L, "member4", 40, null, null),
+                new MemberTeamDto(5L, "member5", 50, null, null),
+                new MemberTeamDto(6L, "member6", 60, null, null)));
+
+        // 이벤트 없이 바뀌었을 수 있는 경계는 ttl 이 지나면 쓰지 않는다
+        MemberPageQuery third = expiring.resolve(condition, PageRequest.of(2, 3));
+        assertThat(third.getSeek()).isNull();
+        assertThat(third.getOffset()).isEqualTo(6);
+    }
+
+    private double count(String action) {
+        return registry.counter("member.search.policy", "action", action).count();
+    }
+}
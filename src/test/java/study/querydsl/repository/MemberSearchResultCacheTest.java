@@ -0,0 +1,106 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberSearchResultCacheTest {
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    @Test
+    void heapTierTest() {
+        MemberSearchResultCache cache = new MemberSearchResultCache(true, TTL, 1024 * 1024, false, 0, 0);
+        AtomicInteger loads = new AtomicInteger();
+        List<MemberTeamDto> rows = List.of(new MemberTeamDto(1L, "member1", 10, 1L, "teamA"));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        cache.get(condition, () -> { loads.incrementAndGet(); return rows; });
+
+        // 빈 문자열 조건은 null 과 같은 키
+        MemberSearchCondition same = new MemberSearchCondition();
+        same.setUsername(" ");
+        same.setTeamName("teamA");
+        List<MemberTeamDto> result = cache.get(same, () -> { loads.incrementAndGet(); return rows; });
+
+        assertThat(result).isEqualTo(rows);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.heapHitCount()).isEqualTo(1);
+
+        cache.onMemberDataChanged(new MemberDataChangedEvent(Set.of(Member.class), false));
+        cache.get(same, () -> { loads.incrementAndGet(); return rows; });
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void heapHitIsNotShared() {
+        MemberSearchResultCache cache = new MemberSearchResultCache(true, TTL, 1024 * 1024, false, 0, 0);
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        List<MemberTeamDto> loaded = cache.get(condition, () -> List.of(new MemberTeamDto(1L, "member1", 10, 1L, "teamA")));
+        loaded.get(0).setUsername("changed");
+        List<MemberTeamDto> first = cache.get(condition, List::of);
+        first.get(0).setAge(99);
+        List<MemberTeamDto> second = cache.get(condition, List::of);
+
+        assertThat(cache.heapHitCount()).isEqualTo(2);
+        assertThat(second.get(0)).isNotSameAs(first.get(0));
+        assertThat(second).containsExactly(new MemberTeamDto(1L, "member1", 10, 1L, "teamA"));
+    }
+
+    @Test
+    void expiredEntryIsReloaded() {
+        MemberSearchResultCache cache = new MemberSearchResultCache(true, Duration.ZERO, 1024 * 1024, false, 0, 0);
+        AtomicInteger loads = new AtomicInteger();
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        cache.get(condition, () -> { loads.incrementAndGet(); return List.of(); });
+        cache.get(condition, () -> { loads.incrementAndGet(); return List.of(); });
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.heapHitCount()).isEqualTo(0);
+    }
+
+    @Test
+    void offHeapTierTest() {
+        MemberSearchResultCache cache = new MemberSearchResultCache(true, TTL, 1024 * 1024, true, 1024 * 1024, 2);
+        List<MemberTeamDto> rows = List.of(
+                new MemberTeamDto(1L, "member1", 10, 1L, "teamA"),
+                new MemberTeamDto(2L, "회원2", 20, null, null));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        cache.get(condition, () -> rows);
+        List<MemberTeamDto> result = cache.get(condition, () -> List.of());
+
+        assertThat(result).isEqualTo(rows);
+        assertThat(cache.offHeapHitCount()).isEqualTo(1);
+        assertThat(cache.heapHitCount()).isEqualTo(0);
+    }
+
+    @Test
+    void sizeEvictionTest() {
+        // 항목 하나만 들어갈 크기
+        MemberSearchResultCache cache = new MemberSearchResultCache(true, TTL, 300, false, 0, 0);
+        List<MemberTeamDto> rows = List.of(new MemberTeamDto(1L, "member1", 10, 1L, "teamA"));
+
+        MemberSearchCondition first = new MemberSearchCondition();
+        first.setAgeGoe(10);
+        MemberSearchCondition second = new MemberSearchCondition();
+        second.setAgeGoe(20);
+
+        cache.get(first, () -> rows);
+        cache.get(second, () -> rows);
+        cache.get(first, () -> rows);
+
+        assertThat(cache.heapHitCount()).isEqualTo(0);
+        assertThat(cache.missCount()).isEqualTo(3);
+    }
+}
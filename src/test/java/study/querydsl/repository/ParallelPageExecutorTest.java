@@ -0,0 +1,109 @@
+package study.querydsl.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+// 트랜잭션 매니저는 mock (TransactionTemplate 이 콜백만 실행)
+class ParallelPageExecutorTest {
+    private final ParallelPageExecutor executor = new ParallelPageExecutor(mock(PlatformTransactionManager.class),
+            new StaticListableBeanFactory().getBeanProvider(DataSource.class),
+            true, 2, 4, Duration.ofMillis(200));
+
+    @AfterEach
+    void after() {
+        executor.destroy();
+    }
+
+    @Test
+    void contentAndCount() {
+        // 두 번째 페이지가 꽉 찼으므로 카운트가 필요하다
+        Page<String> page = executor.getPage(PageRequest.of(1, 2), () -> List.of("c", "d"), () -> 5L);
+
+        assertThat(page.getContent()).containsExactly("c", "d");
+        assertThat(page.getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    void contentErrorCancelsCount() throws InterruptedException {
+        AtomicBoolean countFinished = new AtomicBoolean();
+
+        assertThatThrownBy(() -> executor.getPage(PageRequest.of(1, 2),
+                () -> { throw new IllegalStateException("content failed"); },
+                () -> { sleep(100); countFinished.set(true); return 5L; }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("content failed");
+
+        Thread.sleep(200);
+        assertThat(countFinished).isFalse();
+    }
+
+    @Test
+    void countError() {
+        assertThatThrownBy(() -> executor.getPage(PageRequest.of(1, 2), () -> List.of("c", "d"),
+                () -> { throw new IllegalStateException("count failed"); }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("count failed");
+    }
+
+    @Test
+    void countTimeout() {
+        assertThatThrownBy(() -> executor.getPage(PageRequest.of(1, 2), () -> List.of("c", "d"),
+                () -> { sleep(1000); return 5L; }))
+                .isInstanceOf(QueryTimeoutException.class);
+    }
+
+    @Test
+    void threadsBoundedByConnectionPool() {
+        // 아직 시작하지 않은 풀이므로 커넥션은 만들지 않는다
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(5);
+        ParallelPageExecutor bounded = new ParallelPageExecutor(mock(PlatformTransactionManager.class),
+                new StaticListableBeanFactory(Map.of("dataSource", dataSource)).getBeanProvider(DataSource.class),
+                true, 8, 4, Duration.ofMillis(200));
+
+        // 요청 스레드가 가진 커넥션과 합쳐도 풀을 다 쓰지 않도록 (5 - 1) / 2
+        assertThat(bounded.threads()).isEqualTo(2);
+        bounded.destroy();
+    }
+
+    @Test
+    void threadsBoundedBySmallestPool() {
+        // 라우팅 : 읽기 전용 쿼리는 replica 풀에서도 커넥션을 얻는다
+        HikariDataSource primary = new HikariDataSource();
+        primary.setMaximumPoolSize(9);
+        HikariDataSource replica = new HikariDataSource();
+        replica.setMaximumPoolSize(5);
+        ParallelPageExecutor bounded = new ParallelPageExecutor(mock(PlatformTransactionManager.class),
+                new StaticListableBeanFactory(Map.of("primaryDataSource", primary, "replicaDataSource", replica))
+                        .getBeanProvider(DataSource.class),
+                true, 8, 4, Duration.ofMillis(200));
+
+        assertThat(bounded.threads()).isEqualTo(2);
+        bounded.destroy();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.TeamMembersDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamRepositoryTest {
+    @Autowired private EntityManager em;
+    @Autowired private TeamRepository teamRepository;
+
+    @Test
+    void findTeamsWithTopMembers() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        Team teamC = new Team("teamC");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(teamC);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamA));
+        em.persist(new Member("member4", 40, teamB));
+
+        List<TeamMembersDto> result = teamRepository.findTeamsWithTopMembers(2);
+
+        assertThat(result).extracting("teamName").containsExactly("teamA", "teamB", "teamC");
+        assertThat(result).extracting("memberCount").containsExactly(3L, 1L, 0L);
+        assertThat(result.get(0).getTopMembers()).extracting("username").containsExactly("member3", "member2");
+        assertThat(result.get(1).getTopMembers()).extracting("username").containsExactly("member4");
+        assertThat(result.get(2).getTopMembers()).isEmpty();
+    }
+
+    @Test
+    void topMembersWithTiedAges() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        // 나이가 같으면 먼저 저장된(id 가 작은) 회원이 앞 순위
+        em.persist(new Member("a1", 30, teamA));
+        em.persist(new Member("a2", 40, teamA));
+        em.persist(new Member("a3", 30, teamA));
+        em.persist(new Member("a4", 30, teamA));
+        em.persist(new Member("a5", 10, teamA));
+        em.persist(new Member("b1", 20, teamB));
+        em.persist(new Member("b2", 20, teamB));
+        em.persist(new Member("b3", 20, teamB));
+
+        List<TeamMembersDto> result = teamRepository.findTeamsWithTopMembers(3);
+
+        assertThat(result).extracting("memberCount").containsExactly(5L, 3L);
+        assertThat(result.get(0).getTopMembers()).extracting("username").containsExactly("a2", "a1", "a3");
+        assertThat(result.get(1).getTopMembers()).extracting("username").containsExactly("b1", "b2", "b3");
+    }
+}
@@ -0,0 +1,83 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.BulkLoadResult;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.BulkDmlRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+// 청크마다 커밋하므로 테스트 트랜잭션 없이 실행하고, 만든 팀과 그 팀의 회원만 지운다
+@SpringBootTest(properties = "member.bulk-load.chunk-size=50")
+class MemberBulkLoaderTest {
+    @Autowired private EntityManager em;
+    @Autowired private MemberBulkLoader memberBulkLoader;
+    @Autowired private MemberRepository memberRepository;
+    @Autowired private TeamRepository teamRepository;
+    @Autowired private BulkDmlRepository bulkDmlRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private Team team;
+
+    @BeforeEach
+    void before() {
+        team = teamRepository.save(new Team("bulkLoaderTeam"));
+    }
+
+    @AfterEach
+    void after() {
+        bulkDmlRepository.delete(member, member.team.id.eq(team.getId()));
+        teamRepository.deleteById(team.getId());
+    }
+
+    @Test
+    void load() {
+        BulkLoadResult result = memberBulkLoader.load(IntStream.range(0, 120)
+                .mapToObj(i -> Member.forBulkLoad("bulk" + i, i, team)));
+
+        assertThat(result.getRows()).isEqualTo(120);
+        assertThat(memberRepository.findByUsername("bulk119")).hasSize(1)
+                .allSatisfy(m -> assertThat(m.getTeam().getId()).isEqualTo(team.getId()));
+    }
+
+    @Test
+    void failedChunkKeepsCommittedChunks() {
+        assertThatThrownBy(() -> memberBulkLoader.load(IntStream.range(0, 120)
+                .mapToObj(i -> {
+                    if (i == 70)
+                        throw new IllegalStateException("source failed");
+                    return Member.forBulkLoad("bulk" + i, i, team);
+                })))
+                .isInstanceOf(IllegalStateException.class);
+
+        // 첫 청크(50건)는 커밋, 실패한 두 번째 청크는 롤백
+        assertThat(memberRepository.findByUsername("bulk49")).hasSize(1);
+        assertThat(memberRepository.findByUsername("bulk50")).isEmpty();
+    }
+
+    @Test
+    void callerPersistenceContextUntouched() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team managed = em.find(Team.class, team.getId());
+
+            memberBulkLoader.load(IntStream.range(0, 60)
+                    .mapToObj(i -> Member.forBulkLoad("bulk" + i, i, team)));
+
+            assertThat(em.contains(managed)).isTrue();
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.dto.BulkJobResult;
+import study.querydsl.entity.BulkJobCheckpoint;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.BulkJobCheckpointRepository;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+// 청크마다 별도 트랜잭션으로 커밋하므로 테스트 트랜잭션 없이 실행하고 직접 정리한다
+// 같은 DB 를 쓰는 다른 테스트의 데이터를 건드리지 않도록 작업 대상과 정리는 이 테스트가 만든 행으로 한정한다
+@SpringBootTest(properties = "member.bulk-job.throttle=0s")
+class MemberBulkUpdateJobTest {
+    @Autowired private MemberBulkUpdateJob memberBulkUpdateJob;
+    @Autowired private MemberRepository memberRepository;
+    @Autowired private BulkJobCheckpointRepository checkpointRepository;
+
+    private static final String AGE_PLUS_ONE = "test-age-plus-one";
+    private static final String RENAME = "test-rename";
+
+    private List<Member> members;
+    private List<Long> ids;
+
+    @BeforeEach
+    void before() {
+        members = memberRepository.saveAll(IntStream.range(0, 10)
+                .mapToObj(i -> new Member("job" + i, i))
+                .collect(Collectors.toList()));
+        ids = members.stream().map(Member::getId).collect(Collectors.toList());
+    }
+
+    @AfterEach
+    void after() {
+        memberRepository.deleteAllByIdInBatch(ids);
+        checkpointRepository.deleteAllByIdInBatch(List.of(AGE_PLUS_ONE, RENAME));
+    }
+
+    @Test
+    void runInChunks() {
+        // 처리 범위를 이 테스트가 만든 id 로 (없으면 테이블 전체 id 범위를 청크로 나눈다)
+        BulkJobCheckpoint checkpoint = new BulkJobCheckpoint(AGE_PLUS_ONE, members.get(9).getId());
+        checkpoint.advance(members.get(0).getId() - 1, 0);
+        checkpointRepository.save(checkpoint);
+
+        BulkJobResult result = memberBulkUpdateJob.run(AGE_PLUS_ONE, member.id.in(ids).and(member.age.lt(5)),
+                update -> update.set(member.age, member.age.add(1)), 3);
+
+        assertThat(result.isCompleted()).isTrue();
+        assertThat(result.getChunks()).isEqualTo(4);
+        assertThat(result.getRows()).isEqualTo(5);
+        assertThat(memberRepository.findAllById(ids)).extracting("age")
+                .containsExactlyInAnyOrder(1, 2, 3, 4, 5, 5, 6, 7, 8, 9);
+
+        // 완료된 작업은 다시 실행해도 아무 것도 바꾸지 않는다
+        BulkJobResult again = memberBulkUpdateJob.run(AGE_PLUS_ONE, member.id.in(ids).and(member.age.lt(5)),
+                update -> update.set(member.age, member.age.add(1)), 3);
+        assertThat(again.getChunks()).isEqualTo(0);
+        assertThat(again.getTotalRows()).isEqualTo(5);
+    }
+
+    @Test
+    void resumeFromCheckpoint() {
+        // 앞의 세 건까지 커밋된 뒤 중단된 작업
+        BulkJobCheckpoint checkpoint = new BulkJobCheckpoint(RENAME, members.get(9).getId());
+        checkpoint.advance(members.get(2).getId(), 3);
+        checkpointRepository.save(checkpoint);
+
+        BulkJobResult result = memberBulkUpdateJob.run(RENAME, member.id.in(ids),
+                update -> update.set(member.username, "renamed"), 4);
+
+        assertThat(result.isCompleted()).isTrue();
+        assertThat(result.getRows()).isEqualTo(7);
+        assertThat(result.getTotalRows()).isEqualTo(10);
+        assertThat(memberRepository.findAllById(ids))
+                .filteredOn(renamed -> "renamed".equals(renamed.getUsername()))
+                .hasSize(7);
+    }
+}
@@ -0,0 +1,94 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// 포맷과 스트림 처리만 보므로 리포지토리는 mock
+class MemberExportServiceTest {
+    private final MemberRepository memberRepository = mock(MemberRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MemberExportService exportService =
+            new MemberExportService(memberRepository, mock(EntityManager.class), objectMapper);
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    @Test
+    void csvEscapeAndNullTeam() throws IOException {
+        rows(new MemberTeamDto(1L, "kim, \"junior\"", 10, 1L, "team\nA"),
+                new MemberTeamDto(2L, "lee", 20, null, null));
+
+        String csv = export(MemberExportFormat.CSV);
+
+        assertThat(csv).isEqualTo("memberId,username,age,teamId,teamName\n" +
+                "1,\"kim, \"\"junior\"\"\",10,1,\"team\nA\"\n" +
+                "2,lee,20,,\n");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void ndjsonOneRowPerLine() throws IOException {
+        rows(new MemberTeamDto(1L, "line\nbreak", 10, 1L, "teamA"),
+                new MemberTeamDto(2L, "lee", 20, null, null));
+
+        String[] lines = export(MemberExportFormat.NDJSON).split("\n");
+
+        // 값 안의 개행은 JSON 이스케이프되므로 한 줄에 한 행
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], MemberTeamDto.class).getUsername()).isEqualTo("line\nbreak");
+        MemberTeamDto second = objectMapper.readValue(lines[1], MemberTeamDto.class);
+        assertThat(second.getTeamId()).isNull();
+        assertThat(second.getTeamName()).isNull();
+    }
+
+    @Test
+    void closeStreamOnClientAbort() {
+        // CLEAR_INTERVAL 마다 flush 하므로 스트림을 읽는 도중에 쓰기가 실패한다
+        rows(IntStream.rangeClosed(1, MemberExportService.CLEAR_INTERVAL * 2)
+                .mapToObj(i -> new MemberTeamDto((long) i, "member" + i, i, null, null))
+                .toArray(MemberTeamDto[]::new));
+        OutputStream aborted = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> exportService.export(new MemberSearchCondition(), MemberExportFormat.NDJSON, aborted))
+                .isInstanceOf(IOException.class);
+        assertThat(closed).isTrue();
+    }
+
+    private void rows(MemberTeamDto... rows) {
+        when(memberRepository.searchStream(any(), anyInt()))
+                .thenReturn(Stream.of(rows).onClose(() -> closed.set(true)));
+    }
+
+    private String export(MemberExportFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(new MemberSearchCondition(), format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,83 @@
+package study.querydsl.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchPolicy;
+import study.querydsl.repository.MemberSortKey;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+// 저장소는 mock : chunk 는 2 건씩, 커서 c1 -> c2 -> c3 -> 끝
+class MemberReactiveSearchServiceTest {
+    private final MemberRepository memberRepository = mock(MemberRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MemberSearchPolicy searchPolicy = new MemberSearchPolicy(2, 1000, 10, 10, Duration.ofMinutes(5), registry);
+    private final MemberSearchCondition condition = new MemberSearchCondition();
+    private MemberReactiveSearchService service;
+
+    @AfterEach
+    void after() {
+        if (service != null)
+            service.destroy();
+    }
+
+    @Test
+    void nextChunkIsFetchedOnDemand() {
+        stubChunks();
+        service = new MemberReactiveSearchService(memberRepository, searchPolicy, 2, 10, 2);
+
+        // 첫 chunk 를 다 받고 두 번째 chunk 에서 한 건만 요청
+        StepVerifier.create(service.search(condition), 3)
+                .expectNextCount(3)
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        verify(memberRepository).searchByCursor(any(), eq(MemberSortKey.ID), isNull(), eq(2));
+        verify(memberRepository).searchByCursor(any(), eq(MemberSortKey.ID), eq("c1"), eq(2));
+        // 소비 중인 chunk 다음 하나까지만 미리 읽고 그 뒤는 읽지 않는다
+        verify(memberRepository, never()).searchByCursor(any(), any(), eq("c3"), anyInt());
+    }
+
+    @Test
+    void chunkSizeIsLimitedWithoutCountingClamp() {
+        stubChunks();
+        // max-page-size(2) 보다 큰 chunk 설정
+        service = new MemberReactiveSearchService(memberRepository, searchPolicy, 2, 10, 200);
+
+        StepVerifier.create(service.search(condition))
+                .expectNextCount(7)
+                .verifyComplete();
+
+        verify(memberRepository, never()).searchByCursor(any(), any(), any(), eq(200));
+        assertThat(registry.counter("member.search.policy", "action", "size-clamped").count()).isZero();
+    }
+
+    private void stubChunks() {
+        when(memberRepository.searchByCursor(any(), eq(MemberSortKey.ID), isNull(), anyInt()))
+                .thenReturn(new MemberCursorPage(List.of(row(1), row(2)), "c1"));
+        when(memberRepository.searchByCursor(any(), eq(MemberSortKey.ID), eq("c1"), anyInt()))
+                .thenReturn(new MemberCursorPage(List.of(row(3), row(4)), "c2"));
+        when(memberRepository.searchByCursor(any(), eq(MemberSortKey.ID), eq("c2"), anyInt()))
+                .thenReturn(new MemberCursorPage(List.of(row(5), row(6)), "c3"));
+        when(memberRepository.searchByCursor(any(), eq(MemberSortKey.ID), eq("c3"), anyInt()))
+                .thenReturn(new MemberCursorPage(List.of(row(7)), null));
+    }
+
+    private static MemberTeamDto row(long id) {
+        return new MemberTeamDto(id, "member" + id, (int) id, null, null);
+    }
+}
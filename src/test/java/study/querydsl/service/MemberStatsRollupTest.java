@@ -0,0 +1,130 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberStatsDto;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.BulkDmlRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+// 롤업은 커밋된 변경만 반영하므로 테스트 트랜잭션 없이 실행하고 직접 정리한다
+// 같은 DB 를 쓰는 다른 테스트의 데이터가 있을 수 있으므로 이 테스트가 만든 팀/회원만 보고 지운다
+@SpringBootTest
+class MemberStatsRollupTest {
+    private static final String TEAM_NAME = "rollup-team";
+
+    @Autowired private MemberStatsRollup memberStatsRollup;
+    @Autowired private MemberRepository memberRepository;
+    @Autowired private TeamRepository teamRepository;
+    @Autowired private BulkDmlRepository bulkDmlRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private final List<Long> memberIds = new ArrayList<>();
+    private final List<Long> teamIds = new ArrayList<>();
+
+    @AfterEach
+    void after() {
+        memberRepository.deleteAllByIdInBatch(memberIds);
+        teamRepository.deleteAllByIdInBatch(teamIds);
+    }
+
+    @Test
+    void incrementalAndRebuild() {
+        long total = freshStats().getTotal().getCount();
+        Team teamA = save(new Team(TEAM_NAME));
+        save(new Member("member1", 10, teamA));
+        save(new Member("member2", 20, teamA));
+        Member member3 = save(new Member("member3", 35, teamA));
+        save(new Member("member4", 40));
+
+        // 팀 추가는 행 단위 내역이 없으므로 다시 만든 뒤에 보인다
+        TeamStatsDto stats = teamStats(freshStats(), TEAM_NAME);
+        assertThat(stats.getCount()).isEqualTo(3);
+        assertThat(stats.getSum()).isEqualTo(65);
+        assertThat(stats.getMin()).isEqualTo(10);
+        assertThat(stats.getMax()).isEqualTo(35);
+        assertThat(stats.getAgeHistogram()).containsEntry("30-39", 1L);
+
+        // 행 단위 변경 : 커밋 후 카운터만 고친다
+        transactionTemplate.executeWithoutResult(status ->
+                memberRepository.findById(member3.getId()).orElseThrow().setAge(50));
+        memberRepository.deleteById(member3.getId());
+
+        MemberStatsDto afterDelete = memberStatsRollup.stats();
+        assertThat(afterDelete.isStale()).isFalse();
+        stats = teamStats(afterDelete, TEAM_NAME);
+        assertThat(stats.getCount()).isEqualTo(2);
+        assertThat(stats.getMax()).isEqualTo(20);
+        assertThat(stats.getAvg()).isEqualTo(15.0);
+        assertThat(afterDelete.getTotal().getCount()).isEqualTo(total + 3);
+        // 팀 없는 회원
+        assertThat(afterDelete.getTeams().get(afterDelete.getTeams().size() - 1).getTeamId()).isNull();
+
+        // 벌크 DML 뒤의 조회는 기다리지 않고 마지막 스냅샷을 stale 로 응답하고 백그라운드에서 다시 만든다
+        bulkDmlRepository.update(member, member.id.in(memberIds).and(member.age.lt(15)),
+                update -> update.set(member.age, 90));
+        assertThat(memberStatsRollup.stats().isStale()).isTrue();
+        stats = teamStats(freshStats(), TEAM_NAME);
+        assertThat(stats.getMin()).isEqualTo(20);
+        assertThat(stats.getMax()).isEqualTo(90);
+    }
+
+    @Test
+    void outOfRangeAgeIsClamped() {
+        Team team = save(new Team(TEAM_NAME));
+        save(new Member("young", -5, team));
+        save(new Member("old", 200, team));
+
+        TeamStatsDto stats = teamStats(freshStats(), TEAM_NAME);
+        assertThat(stats.getMin()).isEqualTo(0);
+        assertThat(stats.getMax()).isEqualTo(MemberStatsRollup.MAX_AGE);
+        // sum 도 히스토그램과 같은 값으로
+        assertThat(stats.getSum()).isEqualTo(MemberStatsRollup.MAX_AGE);
+        assertThat(stats.getAgeHistogram()).containsEntry("0-9", 1L).containsEntry("100+", 1L);
+    }
+
+    // 백그라운드에서 다시 만들어질 때까지 조회를 반복
+    private MemberStatsDto freshStats() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        MemberStatsDto stats = memberStatsRollup.stats();
+        while (stats.isStale()) {
+            assertThat(System.nanoTime()).as("rollup rebuilt in time").isLessThan(deadline);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+            stats = memberStatsRollup.stats();
+        }
+        return stats;
+    }
+
+    private Team save(Team team) {
+        Team saved = teamRepository.save(team);
+        teamIds.add(saved.getId());
+        return saved;
+    }
+
+    private Member save(Member member) {
+        Member saved = memberRepository.save(member);
+        memberIds.add(saved.getId());
+        return saved;
+    }
+
+    private static TeamStatsDto teamStats(MemberStatsDto stats, String teamName) {
+        return stats.getTeams().stream()
+                .filter(team -> teamName.equals(team.getTeamName()))
+                .findFirst()
+                .orElseThrow();
+    }
+}